@@ -0,0 +1,73 @@
+package com.healthapp.gateway.filter;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Verified requests/sec of {@link JwtAuthFilter#authenticate} with the claims cache on
+ * and off, over a working set of {@code tokens} distinct access tokens that each client
+ * reuses. Run with the {@code gc} profiler (the profile's default) to compare
+ * allocations per request ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-signing-at-least-32-chars";
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"1000"})
+    public int tokens;
+
+    private JwtAuthFilter filter;
+    private String[] accessTokens;
+
+    @Setup
+    public void setUp() {
+        JwtClaimsCache cache = new JwtClaimsCache(cacheEnabled, 100_000, 300, new SimpleMeterRegistry());
+        filter = new JwtAuthFilter(SECRET, cache);
+
+        accessTokens = new String[tokens];
+        Date expiry = Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+        for (int i = 0; i < tokens; i++) {
+            accessTokens[i] = Jwts.builder()
+                    .subject(UUID.randomUUID().toString())
+                    .claim("email", "user" + i + "@example.com")
+                    .claim("role", "PATIENT")
+                    .issuedAt(new Date())
+                    .expiration(expiry)
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+        }
+    }
+
+    @Benchmark
+    public JwtClaimsCache.VerifiedToken authenticate() {
+        return filter.authenticate(accessTokens[ThreadLocalRandom.current().nextInt(tokens)]);
+    }
+}
@@ -0,0 +1,138 @@
+package com.healthapp.gateway.accesslog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes access log entries as JSON lines from a background thread.
+ * <p>
+ * Request threads only offer an entry to a bounded queue sized at startup; when the queue
+ * is full the entry is dropped and counted rather than blocking the event loop. The writer
+ * thread drains entries in batches and formats them into a reused buffer before handing
+ * each line to the {@code access-log} logger.
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access-log");
+
+    /**
+     * One logged request; {@code reason} says why it was kept (sampled, error or slow).
+     */
+    public record Entry(long epochMillis, String method, String path, String routeId, int status,
+                        long durationMicros, String correlationId, String reason) {
+    }
+
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final Counter droppedCounter;
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public AccessLogWriter(@Value("${gateway.access-log.queue-capacity:8192}") int queueCapacity,
+                           @Value("${gateway.access-log.batch-size:256}") int batchSize,
+                           MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.droppedCounter = meterRegistry.counter("gateway.accesslog.dropped");
+        meterRegistry.gauge("gateway.accesslog.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::run, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queues an entry without blocking; returns false if it was dropped.
+     */
+    public boolean offer(Entry entry) {
+        if (queue.offer(entry)) {
+            return true;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        StringBuilder line = new StringBuilder(512);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Entry entry : batch) {
+                    line.setLength(0);
+                    ACCESS_LOG.info(format(entry, line).toString());
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: loop once more to drain what is queued
+                running = false;
+            } catch (RuntimeException e) {
+                log.warn("Failed to write access log batch", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    static StringBuilder format(Entry entry, StringBuilder out) {
+        out.append("{\"ts\":\"").append(Instant.ofEpochMilli(entry.epochMillis()))
+                .append("\",\"method\":\"").append(entry.method())
+                .append("\",\"path\":\"");
+        appendEscaped(out, entry.path());
+        out.append("\",\"route\":\"");
+        appendEscaped(out, entry.routeId());
+        out.append("\",\"status\":").append(entry.status())
+                .append(",\"durationUs\":").append(entry.durationMicros())
+                .append(",\"correlationId\":\"");
+        appendEscaped(out, entry.correlationId());
+        return out.append("\",\"reason\":\"").append(entry.reason()).append("\"}");
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.healthapp.gateway.filter;
 
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -14,7 +13,6 @@ import java.util.UUID;
 /**
  * Global filter to add correlation ID for request tracing.
  */
-@Slf4j
 @Component
 public class CorrelationIdFilter implements GlobalFilter, Ordered {
     
@@ -24,20 +22,18 @@ public class CorrelationIdFilter implements GlobalFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String correlationId = exchange.getRequest().getHeaders().getFirst(CORRELATION_ID_HEADER);
         
+        // Set before the response is committed; adding it after the chain completes is too late
+        ServerWebExchange tracedExchange = exchange;
         if (correlationId == null || correlationId.isBlank()) {
             correlationId = UUID.randomUUID().toString();
+            ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                    .header(CORRELATION_ID_HEADER, correlationId)
+                    .build();
+            tracedExchange = exchange.mutate().request(mutatedRequest).build();
         }
+        exchange.getResponse().getHeaders().set(CORRELATION_ID_HEADER, correlationId);
         
-        final String finalCorrelationId = correlationId;
-        
-        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                .header(CORRELATION_ID_HEADER, correlationId)
-                .build();
-        
-        return chain.filter(exchange.mutate().request(mutatedRequest).build())
-                .then(Mono.fromRunnable(() -> {
-                    exchange.getResponse().getHeaders().add(CORRELATION_ID_HEADER, finalCorrelationId);
-                }));
+        return chain.filter(tracedExchange);
     }
     
     @Override
@@ -1,9 +1,12 @@
 package com.healthapp.gateway.filter;
 
+import com.healthapp.gateway.filter.JwtClaimsCache.VerifiedToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -23,16 +26,23 @@ import java.nio.charset.StandardCharsets;
 /**
  * Gateway filter for JWT authentication.
  * Validates JWT tokens and adds user information to request headers.
+ * Routes that set {@code requiredRole} also reject valid tokens with another role (403).
  */
 @Slf4j
 @Component
 public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Config> {
     
-    private final SecretKey secretKey;
+    // Thread-safe once built, so one instance serves every request
+    private final JwtParser jwtParser;
+    private final JwtClaimsCache claimsCache;
     
-    public JwtAuthFilter(@Value("${jwt.secret}") String secret) {
+    public JwtAuthFilter(@Value("${jwt.secret}") String secret, JwtClaimsCache claimsCache) {
         super(Config.class);
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.claimsCache = claimsCache;
     }
     
     @Override
@@ -47,18 +57,24 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
             String token = authHeader.substring(7);
             
             try {
-                Claims claims = validateToken(token);
+                VerifiedToken verified = authenticate(token);
+                
+                if (config.getRequiredRole() != null && !config.getRequiredRole().equals(verified.role())) {
+                    log.warn("User {} with role {} denied access to {}",
+                            verified.userId(), verified.role(), exchange.getRequest().getPath());
+                    return error(exchange, HttpStatus.FORBIDDEN, "FORBIDDEN", "Insufficient permissions");
+                }
                 
                 // Add user info to headers for downstream services
                 ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                        .header("X-User-Id", claims.getSubject())
-                        .header("X-User-Email", getClaimAsString(claims, "email"))
-                        .header("X-User-Role", getClaimAsString(claims, "role"))
+                        .header("X-User-Id", verified.userId())
+                        .header("X-User-Email", verified.email())
+                        .header("X-User-Role", verified.role())
                         .header("X-Correlation-Id", getOrCreateCorrelationId(exchange))
                         .build();
                 
                 log.debug("Authenticated user: {} with role: {}", 
-                        claims.getSubject(), claims.get("role"));
+                        verified.userId(), verified.role());
                 
                 return chain.filter(exchange.mutate().request(mutatedRequest).build());
                 
@@ -69,12 +85,20 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
         };
     }
     
-    private Claims validateToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies the token, or returns the result of an earlier verification of the same token.
+     */
+    VerifiedToken authenticate(String token) {
+        return claimsCache.get(token, this::validateToken);
+    }
+    
+    private VerifiedToken validateToken(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        return new VerifiedToken(
+                claims.getSubject(),
+                getClaimAsString(claims, "email"),
+                getClaimAsString(claims, "role"),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
     }
     
     private String getClaimAsString(Claims claims, String claimName) {
@@ -91,13 +115,17 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
     }
     
     private Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
+        return error(exchange, HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", message);
+    }
+    
+    private Mono<Void> error(ServerWebExchange exchange, HttpStatus status, String code, String message) {
         ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.setStatusCode(status);
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
         
         String body = String.format(
-                "{\"success\":false,\"error\":{\"code\":\"UNAUTHORIZED\",\"message\":\"%s\"}}",
-                message
+                "{\"success\":false,\"error\":{\"code\":\"%s\",\"message\":\"%s\"}}",
+                code, message
         );
         
         return response.writeWith(Mono.just(
@@ -105,7 +133,12 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
         ));
     }
     
+    @Data
     public static class Config {
-        // Configuration properties if needed
+        
+        /**
+         * Role claim the token must carry, e.g. {@code ADMIN}; any authenticated user when unset.
+         */
+        private String requiredRole;
     }
 }
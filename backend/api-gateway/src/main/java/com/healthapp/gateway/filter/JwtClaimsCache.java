@@ -0,0 +1,121 @@
+package com.healthapp.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cache of verified JWTs, keyed by the SHA-256 digest of the token so raw tokens are
+ * not kept in memory.
+ * <p>
+ * An entry lives until the token's own {@code exp} or {@code jwt.claims-cache.max-ttl-seconds},
+ * whichever comes first, so the cache never accepts a token the parser would reject as
+ * expired. Only successfully verified tokens are cached. {@link #revoke} and
+ * {@link #revokeUser} drop entries early for callers that learn of a revocation.
+ */
+@Component
+public class JwtClaimsCache {
+
+    /**
+     * The parts of a verified token the gateway forwards downstream.
+     */
+    public record VerifiedToken(String userId, String email, String role, Instant expiresAt) {
+    }
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final boolean enabled;
+    private final Cache<String, VerifiedToken> cache;
+
+    public JwtClaimsCache(@Value("${jwt.claims-cache.enabled:true}") boolean enabled,
+                          @Value("${jwt.claims-cache.max-entries:100000}") long maxEntries,
+                          @Value("${jwt.claims-cache.max-ttl-seconds:300}") long maxTtlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry(Duration.ofSeconds(maxTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    /**
+     * Returns the verified token, running {@code verifier} only on a miss. Verification
+     * failures propagate and are not cached.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    /**
+     * Drops a single token.
+     */
+    public void revoke(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    /**
+     * Drops every cached token of a user, e.g. after logout or a role change.
+     */
+    public void revokeUser(String userId) {
+        cache.asMap().values().removeIf(verified -> verified.userId().equals(userId));
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final Duration maxTtl;
+
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return maxTtl.toNanos();
+            }
+            Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry.toNanos() : maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
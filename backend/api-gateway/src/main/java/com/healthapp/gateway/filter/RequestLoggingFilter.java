@@ -1,46 +1,88 @@
 package com.healthapp.gateway.filter;
 
-import lombok.extern.slf4j.Slf4j;
+import com.healthapp.gateway.accesslog.AccessLogWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
-import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Global filter for request logging.
+ * <p>
+ * Writes one access log entry per kept request through {@link AccessLogWriter}, off the
+ * event loop. Requests are head-sampled at {@code gateway.access-log.sample-rate}; server
+ * errors, failed or cancelled exchanges and requests slower than
+ * {@code gateway.access-log.slow-threshold-ms} are always kept. Per-route latency is
+ * exported as the {@code spring.cloud.gateway.requests} histogram, not derived from logs.
  */
-@Slf4j
 @Component
 public class RequestLoggingFilter implements GlobalFilter, Ordered {
-    
+
+    private final AccessLogWriter accessLogWriter;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(AccessLogWriter accessLogWriter,
+                                @Value("${gateway.access-log.enabled:true}") boolean enabled,
+                                @Value("${gateway.access-log.sample-rate:0.01}") double sampleRate,
+                                @Value("${gateway.access-log.slow-threshold-ms:1000}") long slowThresholdMs) {
+        this.accessLogWriter = accessLogWriter;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-        String correlationId = request.getHeaders().getFirst("X-Correlation-Id");
-        long startTime = Instant.now().toEpochMilli();
-        
-        log.info("Incoming request: {} {} [correlationId: {}]",
-                request.getMethod(),
-                request.getURI().getPath(),
-                correlationId);
-        
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        long startNanos = System.nanoTime();
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+
         return chain.filter(exchange)
-                .then(Mono.fromRunnable(() -> {
-                    long duration = Instant.now().toEpochMilli() - startTime;
-                    log.info("Completed request: {} {} - {} in {}ms [correlationId: {}]",
-                            request.getMethod(),
-                            request.getURI().getPath(),
-                            exchange.getResponse().getStatusCode(),
-                            duration,
-                            correlationId);
-                }));
+                .doFinally(signal -> {
+                    long durationNanos = System.nanoTime() - startNanos;
+                    HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+                    int status = statusCode != null ? statusCode.value() : 0;
+
+                    String reason;
+                    if (signal != SignalType.ON_COMPLETE || status >= 500) {
+                        reason = "error";
+                    } else if (durationNanos >= slowThresholdNanos) {
+                        reason = "slow";
+                    } else if (sampled) {
+                        reason = "sampled";
+                    } else {
+                        return;
+                    }
+
+                    ServerHttpRequest request = exchange.getRequest();
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    accessLogWriter.offer(new AccessLogWriter.Entry(
+                            System.currentTimeMillis(),
+                            request.getMethod().name(),
+                            request.getPath().value(),
+                            route != null ? route.getId() : "",
+                            status,
+                            TimeUnit.NANOSECONDS.toMicros(durationNanos),
+                            request.getHeaders().getFirst("X-Correlation-Id"),
+                            reason));
+                });
     }
-    
+
     @Override
     public int getOrder() {
         return Ordered.HIGHEST_PRECEDENCE + 1;
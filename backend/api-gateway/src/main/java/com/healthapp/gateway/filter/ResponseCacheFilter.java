@@ -0,0 +1,355 @@
+package com.healthapp.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Gateway filter that coalesces concurrent identical GETs into one upstream call and
+ * caches cacheable responses for a short time. Opt in per route:
+ * <pre>
+ * - name: ResponseCacheFilter
+ *   args:
+ *     defaultTtlSeconds: 10
+ * </pre>
+ * Only anonymous GETs are handled. A response is cached when it is a 200 without
+ * {@code no-store}, {@code private} or {@code Set-Cookie}, for its {@code s-maxage} or
+ * {@code max-age} if present, otherwise for {@code defaultTtlSeconds} (0 caches only what
+ * upstream marks cacheable), capped at {@code maxTtlSeconds}. Cached entries carry an
+ * ETag, so clients revalidating with {@code If-None-Match} get a 304; expired entries
+ * with an upstream ETag are revalidated upstream with {@code If-None-Match} rather than
+ * refetched. If the shared upstream call fails, waiting requests get the same error (a 502
+ * when upstream answered with a 5xx) instead of each retrying upstream. Requests are
+ * counted as {@code gateway.response.cache.requests} by route and result.
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+
+    // Hop-by-hop or recomputed on replay
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.SET_COOKIE.toLowerCase(),
+            "keep-alive", "x-correlation-id");
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(MeterRegistry meterRegistry,
+                               @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${gateway.response-cache.max-body-bytes:1048576}") int maxBodyBytes,
+                               @Value("${gateway.response-cache.stale-retention-seconds:300}") long staleRetentionSeconds) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.maxBodyBytes = maxBodyBytes;
+        // Entries outlive their TTL so an ETag is still at hand to revalidate with
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, value) -> value.body().length + 512)
+                .expireAfterWrite(Duration.ofSeconds(staleRetentionSeconds))
+                .build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET
+                    || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            String requestCacheControl = request.getHeaders().getCacheControl();
+            if (requestCacheControl != null
+                    && (requestCacheControl.contains("no-cache") || requestCacheControl.contains("no-store"))) {
+                count(routeId, "bypass");
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(routeId, request);
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh()) {
+                count(routeId, "hit");
+                return write(exchange, cached, "HIT");
+            }
+
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Mono<CachedResponse> leaderResult = sink.asMono();
+            Mono<CachedResponse> existing = inFlight.putIfAbsent(key, leaderResult);
+            if (existing != null) {
+                count(routeId, "coalesced");
+                // An empty result means the leader's response could not be shared; fetch our own.
+                // A failed leader fails its followers too, so an outage does not multiply upstream calls.
+                // Decide on the leader's result, not on write(), which always completes empty.
+                return existing
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent()
+                                ? write(exchange, response.get(), "COALESCED")
+                                : chain.filter(exchange));
+            }
+
+            CachedResponse stale = cached != null && cached.upstreamEtag() && !isConditional(request) ? cached : null;
+            count(routeId, stale != null ? "revalidate" : "miss");
+            ServerWebExchange leaderExchange = exchange;
+            if (stale != null) {
+                leaderExchange = exchange.mutate()
+                        .request(request.mutate().header(HttpHeaders.IF_NONE_MATCH, stale.etag()).build())
+                        .build();
+            }
+            CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), config, stale);
+            Throwable[] failure = {null};
+            return chain.filter(leaderExchange.mutate().response(capturing).build())
+                    .doOnError(error -> failure[0] = error)
+                    .doFinally(signal -> {
+                        inFlight.remove(key, leaderResult);
+                        CachedResponse captured = capturing.captured;
+                        HttpStatusCode status = capturing.getStatusCode();
+                        if (captured != null && signal != SignalType.CANCEL) {
+                            if (captured.expiresAtNanos() > System.nanoTime()) {
+                                cache.put(key, captured);
+                            }
+                            sink.tryEmitValue(captured);
+                        } else if (signal == SignalType.ON_ERROR) {
+                            sink.tryEmitError(failure[0]);
+                        } else if (signal != SignalType.CANCEL && status != null && status.is5xxServerError()) {
+                            sink.tryEmitError(new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                                    "Upstream failed with " + status.value()));
+                        } else {
+                            sink.tryEmitEmpty();
+                        }
+                    });
+        };
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        copyHeaders(cached.headers(), headers);
+        headers.setETag(cached.etag());
+        headers.set("X-Cache", cacheStatus);
+
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.contains(cached.etag()) || ifNoneMatch.contains("*")) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Replays cached headers without duplicating ones other filters already set, e.g. CORS.
+     */
+    private static void copyHeaders(HttpHeaders cached, HttpHeaders target) {
+        cached.forEach((name, values) -> {
+            if (!target.containsKey(name)) {
+                target.addAll(name, values);
+            }
+        });
+    }
+
+    private static boolean isConditional(ServerHttpRequest request) {
+        return request.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)
+                || request.getHeaders().containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static String cacheKey(String routeId, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        // Upstreams may vary the body on these, e.g. gzip
+        return routeId + '|' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + '|' + result, name -> Counter.builder("gateway.response.cache.requests")
+                        .description("Cacheable GETs by route and how they were served")
+                        .tags("route", routeId, "result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * A shareable upstream response; {@code upstreamEtag} is false when the ETag was computed here.
+     */
+    record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+                          boolean upstreamEtag, long expiresAtNanos) {
+
+        boolean isFresh() {
+            return expiresAtNanos - System.nanoTime() > 0;
+        }
+
+        CachedResponse refreshed(long ttlNanos) {
+            return new CachedResponse(status, headers, body, etag, upstreamEtag, System.nanoTime() + ttlNanos);
+        }
+    }
+
+    /**
+     * Passes the leader's response through to its client while keeping a copy to share.
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final Config config;
+        private final CachedResponse stale;
+        private volatile CachedResponse captured;
+
+        CapturingResponse(ServerHttpResponse delegate, Config config, CachedResponse stale) {
+            super(delegate);
+            this.config = config;
+            this.stale = stale;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (stale != null && status == HttpStatus.NOT_MODIFIED) {
+                // Upstream confirmed our copy; answer the client with the body we already hold
+                captured = stale.refreshed(ttlNanos(getHeaders()));
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> {
+                            HttpHeaders headers = getDelegate().getHeaders();
+                            headers.remove(HttpHeaders.CONTENT_LENGTH);
+                            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                            copyHeaders(captured.headers(), headers);
+                            headers.setETag(captured.etag());
+                            headers.setContentLength(captured.body().length);
+                            getDelegate().setStatusCode(captured.status());
+                            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(captured.body())));
+                        }));
+            }
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return super.writeWith(body);
+            }
+
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = {false};
+            Flux<? extends DataBuffer> teed = Flux.from(body).doOnNext(buffer -> {
+                int length = buffer.readableByteCount();
+                if (overflow[0] || copy.size() + length > maxBodyBytes) {
+                    overflow[0] = true;
+                    return;
+                }
+                byte[] bytes = new byte[length];
+                int position = buffer.readPosition();
+                buffer.read(bytes);
+                buffer.readPosition(position);
+                copy.writeBytes(bytes);
+            });
+            return super.writeWith(teed).doOnSuccess(done -> {
+                if (!overflow[0]) {
+                    captured = capture(copy.toByteArray());
+                }
+            });
+        }
+
+        private CachedResponse capture(byte[] body) {
+            HttpHeaders upstream = getDelegate().getHeaders();
+            HttpHeaders headers = new HttpHeaders();
+            upstream.forEach((name, values) -> {
+                if (!UNCACHED_HEADERS.contains(name.toLowerCase())) {
+                    headers.addAll(name, values);
+                }
+            });
+            String etag = upstream.getETag();
+            boolean upstreamEtag = etag != null;
+            if (!upstreamEtag) {
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                etag = "W/\"" + Long.toHexString(crc.getValue()) + '-' + Integer.toHexString(body.length) + '"';
+            }
+            headers.remove(HttpHeaders.ETAG);
+            // Not cacheable responses are still shared with requests that were waiting on this one
+            long ttlNanos = cacheable(upstream) ? ttlNanos(upstream) : 0;
+            return new CachedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body, etag,
+                    upstreamEtag, System.nanoTime() + ttlNanos);
+        }
+
+        private boolean cacheable(HttpHeaders upstream) {
+            String cacheControl = upstream.getCacheControl();
+            if (upstream.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            return cacheControl == null
+                    || !(cacheControl.contains("no-store") || cacheControl.contains("private")
+                    || cacheControl.contains("no-cache"));
+        }
+
+        private long ttlNanos(HttpHeaders upstream) {
+            long ttlSeconds = config.getDefaultTtlSeconds();
+            String cacheControl = upstream.getCacheControl();
+            if (cacheControl != null) {
+                Matcher matcher = MAX_AGE.matcher(cacheControl);
+                if (matcher.find()) {
+                    ttlSeconds = Long.parseLong(matcher.group(1));
+                }
+            }
+            return Duration.ofSeconds(Math.min(ttlSeconds, config.getMaxTtlSeconds())).toNanos();
+        }
+    }
+
+    @Data
+    public static class Config {
+
+        /**
+         * TTL for 200s without max-age; 0 only caches responses upstream marks cacheable.
+         */
+        private long defaultTtlSeconds = 10;
+
+        /**
+         * Upper bound on any TTL, including upstream max-age.
+         */
+        private long maxTtlSeconds = 60;
+    }
+}
@@ -0,0 +1,228 @@
+package com.healthapp.gateway.health;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Probes every downstream {@code /actuator/health} endpoint on a schedule and keeps the
+ * latest result in memory.
+ * <p>
+ * All services are probed in parallel on a dedicated connection pool, each with its own
+ * timeout, so one hung service only marks itself DOWN. A poll still running when the next
+ * one is due skips that tick rather than piling up. Each service keeps a ring buffer of
+ * its last {@code gateway.health.history-size} response times. Readers never trigger a
+ * probe: {@link #snapshot()} and {@link #updates()} serve what the last poll found.
+ */
+@Slf4j
+@Component
+public class ServiceHealthPoller {
+
+    private static final String STATUS_KEY = "status";
+    private static final String RESPONSE_TIME_KEY = "responseTime";
+    private static final String URL_KEY = "url";
+    private static final String NAME_KEY = "name";
+    private static final String STATUS_UP = "UP";
+    private static final String STATUS_DOWN = "DOWN";
+
+    private final List<ServiceTarget> services;
+    private final Duration pollInterval;
+    private final Duration timeout;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final Sinks.Many<Map<String, Object>> updates = Sinks.many().replay().latest();
+
+    private Disposable polling;
+
+    public ServiceHealthPoller(@Value("${USER_SERVICE_URL:http://localhost:8081}") String userServiceUrl,
+                               @Value("${DOCTOR_SERVICE_URL:http://localhost:8082}") String doctorServiceUrl,
+                               @Value("${SEARCH_SERVICE_URL:http://localhost:8083}") String searchServiceUrl,
+                               @Value("${APPOINTMENT_SERVICE_URL:http://localhost:8084}") String appointmentServiceUrl,
+                               @Value("${PAYMENT_SERVICE_URL:http://localhost:8085}") String paymentServiceUrl,
+                               @Value("${NOTIFICATION_SERVICE_URL:http://localhost:8086}") String notificationServiceUrl,
+                               @Value("${CONSULTATION_SERVICE_URL:http://localhost:8087}") String consultationServiceUrl,
+                               @Value("${PRESCRIPTION_SERVICE_URL:http://localhost:8088}") String prescriptionServiceUrl,
+                               @Value("${EHR_SERVICE_URL:http://localhost:8089}") String ehrServiceUrl,
+                               @Value("${ORDER_SERVICE_URL:http://localhost:8090}") String orderServiceUrl,
+                               @Value("${REVIEW_SERVICE_URL:http://localhost:8091}") String reviewServiceUrl,
+                               @Value("${gateway.health.poll-interval-ms:10000}") long pollIntervalMs,
+                               @Value("${gateway.health.timeout-ms:2000}") long timeoutMs,
+                               @Value("${gateway.health.history-size:30}") int historySize) {
+        this.pollInterval = Duration.ofMillis(pollIntervalMs);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.services = List.of(
+                new ServiceTarget("API Gateway", "http://localhost:8080", true, historySize),
+                new ServiceTarget("User Service", userServiceUrl, false, historySize),
+                new ServiceTarget("Doctor Service", doctorServiceUrl, false, historySize),
+                new ServiceTarget("Search Service", searchServiceUrl, false, historySize),
+                new ServiceTarget("Appointment Service", appointmentServiceUrl, false, historySize),
+                new ServiceTarget("Payment Service", paymentServiceUrl, false, historySize),
+                new ServiceTarget("Notification Service", notificationServiceUrl, false, historySize),
+                new ServiceTarget("Consultation Service", consultationServiceUrl, false, historySize),
+                new ServiceTarget("Prescription Service", prescriptionServiceUrl, false, historySize),
+                new ServiceTarget("EHR Service", ehrServiceUrl, false, historySize),
+                new ServiceTarget("Order Service", orderServiceUrl, false, historySize),
+                new ServiceTarget("Review Service", reviewServiceUrl, false, historySize)
+        );
+
+        // One connection per service is enough; a probe waiting longer than its timeout is DOWN anyway
+        this.connectionProvider = ConnectionProvider.builder("health-poller")
+                .maxConnections(services.size())
+                .pendingAcquireTimeout(timeout)
+                .maxIdleTime(pollInterval.multipliedBy(3))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutMs)
+                .responseTimeout(timeout);
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @PostConstruct
+    void start() {
+        polling = Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> pollAll(), 1)
+                .subscribe(
+                        snapshot -> updates.tryEmitNext(snapshot),
+                        error -> log.error("Health poller stopped", error));
+    }
+
+    @PreDestroy
+    void stop() {
+        polling.dispose();
+        updates.tryEmitComplete();
+        connectionProvider.dispose();
+    }
+
+    /**
+     * The latest snapshot, waiting for the first poll if none has completed yet.
+     */
+    public Mono<Map<String, Object>> snapshot() {
+        return updates.asFlux().next();
+    }
+
+    /**
+     * The latest snapshot followed by one per completed poll.
+     */
+    public Flux<Map<String, Object>> updates() {
+        return updates.asFlux();
+    }
+
+    private Mono<Map<String, Object>> pollAll() {
+        return Flux.fromIterable(services)
+                .flatMapSequential(this::checkServiceHealth)
+                .collectList()
+                .map(serviceStatuses -> {
+                    long healthyCount = serviceStatuses.stream()
+                            .filter(s -> STATUS_UP.equals(s.get(STATUS_KEY)))
+                            .count();
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("timestamp", System.currentTimeMillis());
+                    response.put("totalServices", services.size());
+                    response.put("healthyServices", healthyCount);
+                    response.put("unhealthyServices", services.size() - healthyCount);
+                    response.put("overallStatus", healthyCount == services.size() ? "HEALTHY" : "DEGRADED");
+                    response.put("services", serviceStatuses);
+                    return Map.copyOf(response);
+                });
+    }
+
+    private Mono<Map<String, Object>> checkServiceHealth(ServiceTarget service) {
+        if (service.isSelf()) {
+            Map<String, Object> health = baseHealth(service, 0);
+            health.put(STATUS_KEY, STATUS_UP);
+            return Mono.just(health);
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        return webClient.get()
+                .uri(service.url() + "/actuator/health")
+                .retrieve()
+                .bodyToMono(Map.class)
+                .timeout(timeout)
+                .map(response -> {
+                    Map<String, Object> health = baseHealth(service, System.currentTimeMillis() - startTime);
+                    health.put(STATUS_KEY, response.getOrDefault(STATUS_KEY, "UNKNOWN"));
+                    if (response.get("components") != null) {
+                        health.put("details", response.get("components"));
+                    }
+                    return health;
+                })
+                .onErrorResume(error -> {
+                    Map<String, Object> health = baseHealth(service, System.currentTimeMillis() - startTime);
+                    health.put(STATUS_KEY, STATUS_DOWN);
+                    health.put("error", String.valueOf(error.getMessage()));
+                    return Mono.just(health);
+                });
+    }
+
+    private Map<String, Object> baseHealth(ServiceTarget service, long responseTime) {
+        service.history().record(responseTime);
+        Map<String, Object> health = new HashMap<>();
+        health.put(NAME_KEY, service.name());
+        health.put(URL_KEY, service.url());
+        health.put(RESPONSE_TIME_KEY, responseTime);
+        health.put("recentResponseTimes", service.history().values());
+        health.put("checkedAt", System.currentTimeMillis());
+        return health;
+    }
+
+    private record ServiceTarget(String name, String url, boolean isSelf, LatencyHistory history) {
+
+        ServiceTarget(String name, String url, boolean isSelf, int historySize) {
+            this(name, url, isSelf, new LatencyHistory(historySize));
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer of response times in milliseconds.
+     */
+    private static final class LatencyHistory {
+
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        private LatencyHistory(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        /**
+         * Oldest first.
+         */
+        synchronized List<Long> values() {
+            List<Long> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(samples[(next - size + i + samples.length) % samples.length]);
+            }
+            return values;
+        }
+    }
+}
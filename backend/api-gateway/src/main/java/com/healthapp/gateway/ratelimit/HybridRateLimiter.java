@@ -0,0 +1,210 @@
+package com.healthapp.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter that answers most requests from a local bucket and only goes
+ * to Redis to lease tokens in batches.
+ * <p>
+ * The authoritative bucket for each tier and key lives in Redis, as with the stock limiter.
+ * Instead of spending one token per round-trip, an instance leases up to
+ * {@code leaseSize} tokens at once and hands them out locally; concurrent requests for a
+ * key with an empty local bucket share one lease call. When Redis has no tokens left the
+ * key is refused locally for one refill interval before Redis is asked again. A cluster
+ * can over-admit by at most the unused leased tokens, {@code leaseSize} per instance and key.
+ * <p>
+ * Routes pick their tier and rates with {@code hybrid-rate-limiter.*} filter args. Routes
+ * in the same tier share a bucket per key, so they should use the same rates. If Redis
+ * fails or times out the limiter fails open for {@code gateway.rate-limit.redis-backoff-ms}.
+ */
+@Slf4j
+@Primary
+@Component
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+    private final Cache<String, LocalBucket> buckets;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Duration redisTimeout;
+    private final long redisBackoffNanos;
+
+    private volatile long redisUnavailableUntil;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             ConfigurationService configurationService,
+                             MeterRegistry meterRegistry,
+                             @Value("${gateway.rate-limit.redis-timeout-ms:50}") long redisTimeoutMs,
+                             @Value("${gateway.rate-limit.redis-backoff-ms:1000}") long redisBackoffMs,
+                             @Value("${gateway.rate-limit.max-local-keys:100000}") long maxLocalKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.script = (RedisScript) RedisScript.of(new ClassPathResource("scripts/hybrid_rate_limiter.lua"), List.class);
+        this.meterRegistry = meterRegistry;
+        this.redisTimeout = Duration.ofMillis(redisTimeoutMs);
+        this.redisBackoffNanos = Duration.ofMillis(redisBackoffMs).toNanos();
+        this.redisUnavailableUntil = System.nanoTime();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxLocalKeys)
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        String key = config.getTier() + ":" + id;
+        LocalBucket bucket = buckets.get(key, k -> new LocalBucket());
+        long start = System.nanoTime();
+
+        Mono<Long> lease;
+        synchronized (bucket) {
+            if (bucket.tokens > 0) {
+                bucket.tokens--;
+                return Mono.just(decide(config, "local", true, bucket.tokens, start));
+            }
+            if (start - bucket.deniedUntil < 0) {
+                return Mono.just(decide(config, "local", false, 0, start));
+            }
+            if (start - redisUnavailableUntil < 0) {
+                return Mono.just(decide(config, "fail_open", true, -1, start));
+            }
+            if (bucket.lease == null) {
+                bucket.lease = lease(config, key, bucket).cache();
+            }
+            lease = bucket.lease;
+        }
+
+        return lease.map(granted -> {
+            if (granted < 0) {
+                return decide(config, "fail_open", true, -1, start);
+            }
+            synchronized (bucket) {
+                if (bucket.tokens > 0) {
+                    bucket.tokens--;
+                    return decide(config, "redis", true, bucket.tokens, start);
+                }
+            }
+            return decide(config, "redis", false, 0, start);
+        });
+    }
+
+    /**
+     * Leases tokens from Redis into the local bucket; emits the number granted, or -1 when
+     * Redis could not be reached.
+     */
+    private Mono<Long> lease(Config config, String key, LocalBucket bucket) {
+        List<String> keys = List.of("rate_limit.{" + key + "}.tokens", "rate_limit.{" + key + "}.timestamp");
+        List<String> args = List.of(
+                String.valueOf(config.getReplenishRate()),
+                String.valueOf(config.getBurstCapacity()),
+                String.valueOf(config.effectiveLeaseSize()));
+        return redisTemplate.execute(script, keys, args)
+                .single()
+                .timeout(redisTimeout)
+                .map(result -> {
+                    long granted = result.get(0);
+                    synchronized (bucket) {
+                        bucket.tokens += granted;
+                        if (granted == 0) {
+                            bucket.deniedUntil = System.nanoTime() + 1_000_000_000L / config.getReplenishRate();
+                        }
+                    }
+                    return granted;
+                })
+                .onErrorResume(error -> {
+                    log.warn("Rate limiter lease failed for tier {}, failing open: {}", config.getTier(), error.toString());
+                    redisUnavailableUntil = System.nanoTime() + redisBackoffNanos;
+                    return Mono.just(-1L);
+                })
+                .doFinally(signal -> {
+                    synchronized (bucket) {
+                        bucket.lease = null;
+                    }
+                });
+    }
+
+    private Response decide(Config config, String source, boolean allowed, long remaining, long start) {
+        timers.computeIfAbsent(config.getTier() + '|' + source + '|' + allowed, name -> Timer.builder("gateway.ratelimit.requests")
+                        .description("Rate limiter decisions by tier, where they were made and outcome")
+                        .tags("tier", config.getTier(), "source", source, "outcome", allowed ? "allowed" : "rejected")
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Response(allowed, Map.of(
+                REMAINING_HEADER, String.valueOf(remaining),
+                REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity())));
+    }
+
+    /**
+     * Tokens leased from Redis for one tier and key, not yet handed out.
+     */
+    private static final class LocalBucket {
+        private long tokens;
+        private long deniedUntil = System.nanoTime();
+        private Mono<Long> lease;
+    }
+
+    /**
+     * Per-route limiter settings, bound from {@code hybrid-rate-limiter.*} filter args.
+     */
+    @Data
+    @Validated
+    public static class Config {
+
+        /**
+         * Key class the bucket belongs to, e.g. {@code search}, {@code booking} or {@code webhook}.
+         */
+        @NotBlank
+        private String tier = "default";
+
+        @Min(1)
+        private int replenishRate = 100;
+
+        @Min(1)
+        private int burstCapacity = 200;
+
+        /**
+         * Tokens leased per Redis call; 0 leases a tenth of a second of refill.
+         */
+        @Min(0)
+        private int leaseSize = 0;
+
+        int effectiveLeaseSize() {
+            int size = leaseSize > 0 ? leaseSize : Math.max(1, replenishRate / 10);
+            return Math.min(size, burstCapacity);
+        }
+    }
+}
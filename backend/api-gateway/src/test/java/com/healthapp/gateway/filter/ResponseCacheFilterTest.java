@@ -0,0 +1,59 @@
+package com.healthapp.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final int REQUESTS = 20;
+
+    @Test
+    void concurrentIdenticalGetsCallUpstreamOnce() {
+        ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+        config.setDefaultTtlSeconds(0);
+        GatewayFilter filter = new ResponseCacheFilter(new SimpleMeterRegistry(), 1 << 20, 1 << 16, 60)
+                .apply(config);
+
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        // Slow enough that every request joins before the first one completes
+        GatewayFilterChain chain = exchange -> Mono.delay(Duration.ofMillis(200))
+                .then(Mono.defer(() -> {
+                    upstreamCalls.incrementAndGet();
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(HttpStatus.OK);
+                    return response.writeWith(Mono.just(response.bufferFactory()
+                            .wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+                }));
+
+        List<MockServerWebExchange> exchanges = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/doctors/1")))
+                .toList();
+
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, chain), REQUESTS)
+                .then()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(1);
+        for (MockServerWebExchange exchange : exchanges) {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+        }
+    }
+}
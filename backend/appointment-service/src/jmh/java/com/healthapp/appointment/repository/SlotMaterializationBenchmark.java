@@ -0,0 +1,160 @@
+package com.healthapp.appointment.repository;
+
+import com.healthapp.appointment.domain.AvailableSlot;
+import com.healthapp.appointment.domain.ConsultationType;
+import com.healthapp.appointment.domain.SlotStatus;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Slot rows written per second when materializing one doctor's 30-day schedule, comparing
+ * {@link AvailableSlotBatchRepository#insertAll} with the previous path of one INSERT per
+ * slot issued concurrently (what {@code slotRepo.save} per row amounted to), capped at the
+ * connection pool size. Both go through a connection pool sized like the service's. Each
+ * invocation writes a fresh doctor's schedule, so no row hits ON CONFLICT.
+ * <p>
+ * Runs against a throwaway Postgres started with Testcontainers and migrated with the
+ * service's Flyway scripts, so Docker must be available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SlotMaterializationBenchmark {
+
+    private static final int DAYS = 30;
+    private static final int SLOTS_PER_DAY = 16;
+    private static final int SLOTS = DAYS * SLOTS_PER_DAY;
+
+    // Mirrors spring.r2dbc.pool in application.yml
+    private static final int POOL_INITIAL_SIZE = 5;
+    private static final int POOL_MAX_SIZE = 20;
+
+    private static final String INSERT_SLOT = """
+        INSERT INTO available_slots
+            (doctor_id, clinic_id, slot_date, start_time, end_time,
+             consultation_type, slot_duration_minutes, status, created_at)
+        VALUES ($1, NULL, $2, $3, $4, $5::consultation_type, $6, 'AVAILABLE', $7)
+        """;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConnectionPool connectionPool;
+    private R2dbcEntityTemplate template;
+    private AvailableSlotBatchRepository batchRepository;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                .option(ConnectionFactoryOptions.HOST, postgres.getHost())
+                .option(ConnectionFactoryOptions.PORT, postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                .option(ConnectionFactoryOptions.DATABASE, postgres.getDatabaseName())
+                .option(ConnectionFactoryOptions.USER, postgres.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, postgres.getPassword())
+                .build());
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(POOL_INITIAL_SIZE)
+                .maxSize(POOL_MAX_SIZE)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+        template = new R2dbcEntityTemplate(connectionPool);
+        batchRepository = new AvailableSlotBatchRepository(template);
+        ReflectionTestUtils.setField(batchRepository, "batchSize", 500);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        template.getDatabaseClient().sql("TRUNCATE available_slots CASCADE").then().block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.dispose();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SLOTS)
+    public Long batchedInsert() {
+        return batchRepository.insertAll(schedule()).block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SLOTS)
+    public Long singleRowInserts() {
+        return Flux.fromIterable(schedule())
+                .flatMap(slot -> template.getDatabaseClient()
+                        .sql(INSERT_SLOT)
+                        .bind(0, slot.getDoctorId())
+                        .bind(1, slot.getSlotDate())
+                        .bind(2, slot.getStartTime())
+                        .bind(3, slot.getEndTime())
+                        .bind(4, slot.getConsultationType().name())
+                        .bind(5, slot.getSlotDurationMinutes())
+                        .bind(6, slot.getCreatedAt())
+                        .fetch()
+                        .rowsUpdated(), POOL_MAX_SIZE)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static List<AvailableSlot> schedule() {
+        UUID doctorId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        Instant now = Instant.now();
+        List<AvailableSlot> slots = new ArrayList<>(SLOTS);
+        for (int day = 0; day < DAYS; day++) {
+            LocalTime start = LocalTime.of(9, 0);
+            for (int i = 0; i < SLOTS_PER_DAY; i++) {
+                slots.add(AvailableSlot.builder()
+                        .doctorId(doctorId)
+                        .slotDate(today.plusDays(day))
+                        .startTime(start)
+                        .endTime(start.plusMinutes(30))
+                        .consultationType(ConsultationType.VIDEO)
+                        .slotDurationMinutes(30)
+                        .status(SlotStatus.AVAILABLE)
+                        .createdAt(now)
+                        .build());
+                start = start.plusMinutes(30);
+            }
+        }
+        return slots;
+    }
+}
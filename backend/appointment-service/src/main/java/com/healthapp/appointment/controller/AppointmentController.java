@@ -3,10 +3,12 @@ package com.healthapp.appointment.controller;
 import com.healthapp.appointment.domain.AppointmentStatus;
 import com.healthapp.appointment.dto.*;
 import com.healthapp.appointment.service.AppointmentService;
+import com.healthapp.common.dto.CursorPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -70,6 +72,33 @@ public class AppointmentController {
                 UUID.fromString(patientId), status, fromDate, page, size);
     }
     
+    @GetMapping("/patient/me/page")
+    public Mono<CursorPage<AppointmentDto>> getPatientAppointmentPage(
+            @RequestHeader("X-User-Id") String patientId,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return appointmentService.getPatientAppointmentPage(
+                UUID.fromString(patientId), status, cursor, size);
+    }
+    
+    @GetMapping("/doctor/me/page")
+    public Mono<CursorPage<AppointmentDto>> getDoctorAppointmentPage(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return appointmentService.getDoctorAppointmentPage(UUID.fromString(userId), status, cursor, size);
+    }
+    
+    @GetMapping(value = "/doctor/me/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AppointmentDto> streamDoctorAppointments(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) AppointmentStatus status) {
+        return appointmentService.streamDoctorAppointments(UUID.fromString(userId), status);
+    }
+    
     @GetMapping("/doctor/me")
     public Flux<AppointmentDto> getDoctorAppointments(
             @RequestHeader("X-User-Id") String userId,
@@ -0,0 +1,39 @@
+package com.healthapp.appointment.dto;
+
+import com.healthapp.appointment.domain.Appointment;
+import com.healthapp.common.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in an appointment listing ordered by {@code (scheduled_at, id)}.
+ * Encoded as an opaque URL-safe token.
+ */
+public record AppointmentCursor(Instant scheduledAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static AppointmentCursor of(Appointment appointment) {
+        return new AppointmentCursor(appointment.getScheduledAt(), appointment.getId());
+    }
+
+    public String encode() {
+        String raw = scheduledAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AppointmentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new AppointmentCursor(
+                    Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("cursor", "Invalid cursor");
+        }
+    }
+}
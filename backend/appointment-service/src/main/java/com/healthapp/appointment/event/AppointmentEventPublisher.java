@@ -1,48 +1,53 @@
 package com.healthapp.appointment.event;
 
 import com.healthapp.appointment.domain.Appointment;
+import com.healthapp.common.outbox.OutboxWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+/**
+ * Publishes appointment events through the transactional outbox.
+ * Callers must subscribe to the returned Mono inside the transaction that changes the appointment.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AppointmentEventPublisher {
     
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxWriter outboxWriter;
     
     private static final String TOPIC_APPOINTMENTS = "appointments";
     
-    public void publishReserved(Appointment appointment) {
+    public Mono<Void> publishReserved(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "RESERVED");
-        publish(event);
+        return publish(event);
     }
     
-    public void publishConfirmed(Appointment appointment) {
+    public Mono<Void> publishConfirmed(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "CONFIRMED");
-        publish(event);
+        return publish(event);
     }
     
-    public void publishCancelled(Appointment appointment) {
+    public Mono<Void> publishCancelled(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "CANCELLED");
-        publish(event);
+        return publish(event);
     }
     
-    public void publishExpired(Appointment appointment) {
+    public Mono<Void> publishExpired(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "EXPIRED");
-        publish(event);
+        return publish(event);
     }
     
-    public void publishRescheduled(Appointment appointment) {
+    public Mono<Void> publishRescheduled(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "RESCHEDULED");
-        publish(event);
+        return publish(event);
     }
     
-    public void publishCompleted(Appointment appointment) {
+    public Mono<Void> publishCompleted(Appointment appointment) {
         AppointmentEvent event = createEvent(appointment, "COMPLETED");
-        publish(event);
+        return publish(event);
     }
     
     private AppointmentEvent createEvent(Appointment appointment, String eventType) {
@@ -59,19 +64,9 @@ public class AppointmentEventPublisher {
                 .build();
     }
     
-    private void publish(AppointmentEvent event) {
-        try {
-            kafkaTemplate.send(TOPIC_APPOINTMENTS, event.getAppointmentId().toString(), event)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            log.error("Failed to publish appointment event: {}", event.getEventType(), ex);
-                        } else {
-                            log.info("Published appointment event: {} for appointment {}", 
-                                    event.getEventType(), event.getAppointmentId());
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("Error publishing appointment event", e);
-        }
+    private Mono<Void> publish(AppointmentEvent event) {
+        return outboxWriter.write(TOPIC_APPOINTMENTS, event.getAppointmentId().toString(), event)
+                .doOnSuccess(v -> log.debug("Staged appointment event: {} for appointment {}",
+                        event.getEventType(), event.getAppointmentId()));
     }
 }
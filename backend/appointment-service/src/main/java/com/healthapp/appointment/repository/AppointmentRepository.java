@@ -14,12 +14,37 @@ import java.util.UUID;
 @Repository
 public interface AppointmentRepository extends ReactiveCrudRepository<Appointment, UUID> {
     
+    /**
+     * Claims up to {@code limit} expired reservations, cancels them and frees their slots
+     * in one statement. Rows locked by another replica are skipped, so concurrent callers
+     * never process the same reservation twice.
+     */
     @Query("""
-        SELECT * FROM appointments 
-        WHERE status = 'PENDING_PAYMENT' 
-        AND reserved_until < :now
+        WITH expired AS (
+            UPDATE appointments 
+            SET status = 'CANCELLED_SYSTEM', 
+                cancellation_reason = 'Reservation expired - payment not completed', 
+                cancelled_at = NOW(), 
+                updated_at = NOW() 
+            WHERE id IN (
+                SELECT id FROM appointments 
+                WHERE status = 'PENDING_PAYMENT' 
+                AND reserved_until < :now 
+                ORDER BY reserved_until 
+                LIMIT :limit 
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+        ), released AS (
+            UPDATE available_slots s 
+            SET status = 'AVAILABLE', appointment_id = NULL 
+            FROM expired e 
+            WHERE s.id = e.slot_id 
+            AND s.appointment_id = e.id
+        )
+        SELECT * FROM expired
         """)
-    Flux<Appointment> findExpiredReservations(Instant now);
+    Flux<Appointment> expireReservationsBatch(Instant now, int limit);
     
     @Query("""
         SELECT * FROM appointments 
@@ -38,12 +63,51 @@ public interface AppointmentRepository extends ReactiveCrudRepository<Appointmen
         """)
     Flux<Appointment> findByPatientIdAndStatusIn(UUID patientId, String[] statuses, int size, int offset);
     
+    /**
+     * Keyset page of a patient's appointments, newest first, strictly after the
+     * {@code (scheduledAt, id)} position. Cost does not grow with page depth.
+     */
+    @Query("""
+        SELECT * FROM appointments 
+        WHERE patient_id = :patientId 
+        AND (scheduled_at, id) < (:scheduledAt, :id)
+        ORDER BY scheduled_at DESC, id DESC
+        LIMIT :limit
+        """)
+    Flux<Appointment> findPatientPage(UUID patientId, Instant scheduledAt, UUID id, int limit);
+    
+    @Query("""
+        SELECT * FROM appointments 
+        WHERE patient_id = :patientId 
+        AND status = ANY(:statuses)
+        AND (scheduled_at, id) < (:scheduledAt, :id)
+        ORDER BY scheduled_at DESC, id DESC
+        LIMIT :limit
+        """)
+    Flux<Appointment> findPatientPageByStatusIn(UUID patientId, String[] statuses, Instant scheduledAt, UUID id, int limit);
+    
+    /**
+     * Keyset page of a doctor's appointments, oldest first, strictly after the
+     * {@code (scheduledAt, id)} position.
+     */
     @Query("""
         SELECT * FROM appointments 
         WHERE doctor_id = :doctorId 
-        ORDER BY scheduled_at ASC
+        AND (scheduled_at, id) > (:scheduledAt, :id)
+        ORDER BY scheduled_at ASC, id ASC
+        LIMIT :limit
+        """)
+    Flux<Appointment> findDoctorPage(UUID doctorId, Instant scheduledAt, UUID id, int limit);
+    
+    @Query("""
+        SELECT * FROM appointments 
+        WHERE doctor_id = :doctorId 
+        AND status = ANY(:statuses)
+        AND (scheduled_at, id) > (:scheduledAt, :id)
+        ORDER BY scheduled_at ASC, id ASC
+        LIMIT :limit
         """)
-    Flux<Appointment> findByDoctorId(UUID doctorId);
+    Flux<Appointment> findDoctorPageByStatusIn(UUID doctorId, String[] statuses, Instant scheduledAt, UUID id, int limit);
     
     @Query("""
         SELECT * FROM appointments 
@@ -0,0 +1,114 @@
+package com.healthapp.appointment.repository;
+
+import com.healthapp.appointment.domain.AvailableSlot;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk write operations for available slots.
+ * Uses R2DBC statement batching so a full schedule is materialized in a
+ * handful of round-trips instead of one INSERT per slot.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class AvailableSlotBatchRepository {
+
+    private static final String INSERT_SLOT = """
+        INSERT INTO available_slots
+            (doctor_id, clinic_id, slot_date, start_time, end_time,
+             consultation_type, slot_duration_minutes, status, created_at)
+        VALUES ($1, $2, $3, $4, $5, $6::consultation_type, $7, 'AVAILABLE', $8)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String DELETE_AVAILABLE_BY_IDS = """
+        DELETE FROM available_slots
+        WHERE id = ANY($1)
+        AND status = 'AVAILABLE'
+        """;
+
+    private final R2dbcEntityTemplate template;
+
+    @Value("${appointment.slots.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Inserts the given slots as AVAILABLE in batches of {@code appointment.slots.batch-size}.
+     * Rows that collide with an existing slot are skipped.
+     *
+     * @return number of rows actually inserted
+     */
+    public Mono<Long> insertAll(List<AvailableSlot> slots) {
+        if (slots.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return Flux.fromIterable(slots)
+                .buffer(batchSize)
+                .concatMap(this::insertBatch)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Deletes the given slots, skipping any that have been reserved or booked
+     * since they were read.
+     *
+     * @return number of rows deleted
+     */
+    public Mono<Long> deleteAvailableByIds(List<UUID> slotIds) {
+        if (slotIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return template.getDatabaseClient()
+                .sql(DELETE_AVAILABLE_BY_IDS)
+                .bind(0, slotIds.toArray(new UUID[0]))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> insertBatch(List<AvailableSlot> batch) {
+        Instant now = Instant.now();
+
+        return template.getDatabaseClient()
+                .inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_SLOT);
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bindSlot(statement, batch.get(i), now);
+                    }
+                    return Flux.from(statement.execute())
+                            .flatMap(result -> Mono.from(result.getRowsUpdated()));
+                })
+                .reduce(0L, Long::sum)
+                .doOnSuccess(inserted -> log.debug("Inserted {} of {} slots in batch", inserted, batch.size()));
+    }
+
+    private void bindSlot(Statement statement, AvailableSlot slot, Instant now) {
+        statement.bind(0, slot.getDoctorId());
+        if (slot.getClinicId() != null) {
+            statement.bind(1, slot.getClinicId());
+        } else {
+            statement.bindNull(1, UUID.class);
+        }
+        statement.bind(2, slot.getSlotDate());
+        statement.bind(3, slot.getStartTime());
+        statement.bind(4, slot.getEndTime());
+        statement.bind(5, slot.getConsultationType().name());
+        statement.bind(6, slot.getSlotDurationMinutes());
+        statement.bind(7, slot.getCreatedAt() != null ? slot.getCreatedAt() : now);
+    }
+}
@@ -1,7 +1,6 @@
 package com.healthapp.appointment.repository;
 
 import com.healthapp.appointment.domain.AvailableSlot;
-import com.healthapp.appointment.domain.ConsultationType;
 import com.healthapp.appointment.domain.SlotStatus;
 import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
@@ -16,28 +15,6 @@ import java.util.UUID;
 @Repository
 public interface AvailableSlotRepository extends ReactiveCrudRepository<AvailableSlot, UUID> {
     
-    @Query("""
-        SELECT * FROM available_slots 
-        WHERE doctor_id = :doctorId 
-        AND slot_date >= :startDate 
-        AND slot_date <= :endDate 
-        AND status = 'AVAILABLE'
-        ORDER BY slot_date, start_time
-        """)
-    Flux<AvailableSlot> findByDoctorIdAndDateRange(UUID doctorId, LocalDate startDate, LocalDate endDate);
-    
-    @Query("""
-        SELECT * FROM available_slots 
-        WHERE doctor_id = :doctorId 
-        AND slot_date >= :startDate 
-        AND slot_date <= :endDate 
-        AND status = 'AVAILABLE'
-        AND consultation_type = :consultationType
-        ORDER BY slot_date, start_time
-        """)
-    Flux<AvailableSlot> findByDoctorIdAndDateRangeAndType(
-            UUID doctorId, LocalDate startDate, LocalDate endDate, ConsultationType consultationType);
-    
     @Modifying
     @Query("""
         UPDATE available_slots 
@@ -46,14 +23,19 @@ public interface AvailableSlotRepository extends ReactiveCrudRepository<Availabl
         """)
     Mono<Integer> updateStatus(UUID slotId, SlotStatus status, UUID appointmentId);
     
-    @Modifying
+    /**
+     * Atomically moves a bookable slot from AVAILABLE to RESERVED.
+     * Emits nothing if the slot does not exist, is in the past, or was claimed by someone else.
+     */
     @Query("""
-        DELETE FROM available_slots 
-        WHERE doctor_id = :doctorId 
-        AND slot_date >= :startDate 
-        AND status = 'AVAILABLE'
+        UPDATE available_slots 
+        SET status = 'RESERVED' 
+        WHERE id = :slotId 
+        AND status = 'AVAILABLE' 
+        AND slot_date >= CURRENT_DATE
+        RETURNING *
         """)
-    Mono<Integer> deleteByDoctorIdAndSlotDateAfterAndStatus(UUID doctorId, LocalDate startDate);
+    Mono<AvailableSlot> claimAvailable(UUID slotId);
     
     @Query("""
         SELECT * FROM available_slots 
@@ -64,5 +46,22 @@ public interface AvailableSlotRepository extends ReactiveCrudRepository<Availabl
         """)
     Flux<AvailableSlot> findByDoctorIdAndSlotDate(UUID doctorId, LocalDate slotDate);
     
+    @Query("""
+        SELECT * FROM available_slots 
+        WHERE doctor_id = :doctorId 
+        AND slot_date >= :startDate 
+        AND slot_date <= :endDate
+        """)
+    Flux<AvailableSlot> findAllByDoctorIdAndDateRange(UUID doctorId, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Latest date the doctor has any slot on, or {@code fallback} if none.
+     */
+    @Query("""
+        SELECT COALESCE(MAX(slot_date), :fallback) FROM available_slots 
+        WHERE doctor_id = :doctorId
+        """)
+    Mono<LocalDate> findLastSlotDate(UUID doctorId, LocalDate fallback);
+    
     Flux<AvailableSlot> findByDoctorId(UUID doctorId);
 }
@@ -19,6 +19,9 @@ public interface WeeklyAvailabilityRepository extends ReactiveCrudRepository<Wee
     @Query("SELECT * FROM weekly_availability WHERE doctor_id = :doctorId AND is_active = true")
     Flux<WeeklyAvailability> findActiveByDoctorId(UUID doctorId);
     
+    @Query("SELECT DISTINCT doctor_id FROM weekly_availability WHERE is_active = true")
+    Flux<UUID> findActiveDoctorIds();
+    
     @Query("DELETE FROM weekly_availability WHERE doctor_id = :doctorId")
     Mono<Void> deleteByDoctorId(UUID doctorId);
     
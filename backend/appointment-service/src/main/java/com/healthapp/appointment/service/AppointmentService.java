@@ -4,6 +4,9 @@ import com.healthapp.appointment.domain.*;
 import com.healthapp.appointment.dto.*;
 import com.healthapp.appointment.event.AppointmentEventPublisher;
 import com.healthapp.appointment.repository.*;
+import com.healthapp.common.dto.CursorPage;
+import com.healthapp.common.exception.ConflictException;
+import com.healthapp.common.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +17,7 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.*;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -25,32 +29,46 @@ public class AppointmentService {
     private final AvailableSlotRepository slotRepo;
     private final AppointmentStatusHistoryRepository historyRepo;
     private final AppointmentEventPublisher eventPublisher;
+    private final SlotAvailabilityIndex slotIndex;
     
     @Value("${appointment.reservation.expiry-minutes:10}")
     private int reservationExpiryMinutes;
     
+    @Value("${appointment.pagination.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${appointment.pagination.stream-chunk-size:500}")
+    private int streamChunkSize;
+    
     private static final BigDecimal PLATFORM_FEE_PERCENTAGE = new BigDecimal("0.10"); // 10%
     
+    // Keyset positions before the first / after the last possible row
+    private static final AppointmentCursor OLDEST = new AppointmentCursor(Instant.EPOCH, new UUID(0L, 0L));
+    private static final AppointmentCursor NEWEST = new AppointmentCursor(
+            Instant.parse("9999-12-31T23:59:59Z"), new UUID(-1L, -1L));
+    
+    /**
+     * Reserves a slot for the patient. The slot is claimed with a single conditional
+     * UPDATE before anything else is written, so concurrent losers fail fast without
+     * inserting an appointment.
+     */
     @Transactional
     public Mono<ReservationResponse> reserveSlot(UUID patientId, BookingRequest request) {
-        return slotRepo.findById(request.getSlotId())
-                .switchIfEmpty(Mono.error(new RuntimeException("Slot not found")))
-                .flatMap(this::validateSlotAvailable)
+        return slotRepo.claimAvailable(request.getSlotId())
+                .switchIfEmpty(Mono.defer(() -> explainClaimFailure(request.getSlotId())))
                 .flatMap(slot -> createReservation(patientId, slot, request))
                 .flatMap(this::updateSlotToReserved)
                 .flatMap(this::saveStatusHistory)
-                .doOnSuccess(eventPublisher::publishReserved)
+                .flatMap(appointment -> eventPublisher.publishReserved(appointment).thenReturn(appointment))
                 .map(this::toReservationResponse);
     }
     
-    private Mono<AvailableSlot> validateSlotAvailable(AvailableSlot slot) {
-        if (slot.getStatus() != SlotStatus.AVAILABLE) {
-            return Mono.error(new RuntimeException("Slot is no longer available"));
-        }
-        if (slot.getSlotDate().isBefore(LocalDate.now())) {
-            return Mono.error(new RuntimeException("Cannot book past slots"));
-        }
-        return Mono.just(slot);
+    private Mono<AvailableSlot> explainClaimFailure(UUID slotId) {
+        return slotRepo.findById(slotId)
+                .switchIfEmpty(Mono.error(new NotFoundException("Slot", slotId.toString())))
+                .flatMap(slot -> slot.getSlotDate().isBefore(LocalDate.now())
+                        ? Mono.error(new RuntimeException("Cannot book past slots"))
+                        : Mono.error(new ConflictException("Slot is no longer available")));
     }
     
     private Mono<Appointment> createReservation(UUID patientId, AvailableSlot slot, BookingRequest request) {
@@ -92,6 +110,7 @@ public class AppointmentService {
     
     private Mono<Appointment> updateSlotToReserved(Appointment appointment) {
         return slotRepo.updateStatus(appointment.getSlotId(), SlotStatus.RESERVED, appointment.getId())
+                .then(slotIndex.onSlotStatusChanged(appointment, SlotStatus.RESERVED))
                 .thenReturn(appointment);
     }
     
@@ -126,10 +145,11 @@ public class AppointmentService {
                 })
                 .flatMap(appointment -> 
                         slotRepo.updateStatus(appointment.getSlotId(), SlotStatus.BOOKED, appointment.getId())
+                                .then(slotIndex.onSlotStatusChanged(appointment, SlotStatus.BOOKED))
                                 .thenReturn(appointment))
                 .flatMap(appointment -> saveStatusTransition(appointment, 
                         AppointmentStatus.PENDING_PAYMENT, AppointmentStatus.CONFIRMED, patientId))
-                .doOnSuccess(eventPublisher::publishConfirmed)
+                .flatMap(appointment -> eventPublisher.publishConfirmed(appointment).thenReturn(appointment))
                 .map(this::toDto);
     }
     
@@ -168,8 +188,9 @@ public class AppointmentService {
                 })
                 .flatMap(appointment -> 
                         slotRepo.updateStatus(appointment.getSlotId(), SlotStatus.AVAILABLE, null)
+                                .then(slotIndex.onSlotStatusChanged(appointment, SlotStatus.AVAILABLE))
                                 .thenReturn(appointment))
-                .doOnSuccess(eventPublisher::publishCancelled)
+                .flatMap(appointment -> eventPublisher.publishCancelled(appointment).thenReturn(appointment))
                 .map(this::toDto);
     }
     
@@ -183,22 +204,16 @@ public class AppointmentService {
         return Mono.just(appointment);
     }
     
-    public Mono<Void> releaseReservation(UUID appointmentId) {
-        return appointmentRepo.findById(appointmentId)
-                .flatMap(appointment -> {
-                    Appointment updated = appointment.toBuilder()
-                            .status(AppointmentStatus.CANCELLED_SYSTEM)
-                            .cancellationReason("Reservation expired")
-                            .cancelledAt(Instant.now())
-                            .updatedAt(Instant.now())
-                            .build();
-                    return appointmentRepo.save(updated);
-                })
-                .flatMap(appointment -> 
-                        slotRepo.updateStatus(appointment.getSlotId(), SlotStatus.AVAILABLE, null)
-                                .thenReturn(appointment))
-                .doOnSuccess(eventPublisher::publishExpired)
-                .then();
+    /**
+     * Releases one batch of expired reservations. The claim, the slot release and the
+     * outbox events are committed together.
+     */
+    @Transactional
+    public Mono<List<Appointment>> expireReservations(Instant now, int limit) {
+        return appointmentRepo.expireReservationsBatch(now, limit)
+                .concatMap(appointment -> eventPublisher.publishExpired(appointment).thenReturn(appointment))
+                .collectList()
+                .flatMap(expired -> slotIndex.onSlotStatusChanged(expired, SlotStatus.AVAILABLE).thenReturn(expired));
     }
     
     public Flux<AppointmentDto> getPatientAppointments(UUID patientId, AppointmentStatus status, 
@@ -227,10 +242,82 @@ public class AppointmentService {
                     .map(this::toDto);
         }
         
-        return appointmentRepo.findByDoctorId(doctorId)
+        return streamDoctorAppointments(doctorId, status);
+    }
+    
+    /**
+     * Keyset page of the patient's appointments, newest first.
+     */
+    public Mono<CursorPage<AppointmentDto>> getPatientAppointmentPage(UUID patientId, AppointmentStatus status,
+                                                                     String cursor, int size) {
+        int limit = clampPageSize(size);
+        AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor) : NEWEST;
+        return toCursorPage(findPatientPage(patientId, status, after, limit + 1), limit);
+    }
+    
+    /**
+     * Keyset page of the doctor's appointments, oldest first.
+     */
+    public Mono<CursorPage<AppointmentDto>> getDoctorAppointmentPage(UUID doctorId, AppointmentStatus status,
+                                                                    String cursor, int size) {
+        int limit = clampPageSize(size);
+        AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor) : OLDEST;
+        return toCursorPage(findDoctorPage(doctorId, status, after, limit + 1), limit);
+    }
+    
+    /**
+     * Streams all of the doctor's appointments, oldest first, reading them in keyset
+     * chunks so that memory stays bounded regardless of history size.
+     */
+    public Flux<AppointmentDto> streamDoctorAppointments(UUID doctorId, AppointmentStatus status) {
+        return findDoctorPage(doctorId, status, OLDEST, streamChunkSize)
+                .collectList()
+                .expand(chunk -> chunk.size() < streamChunkSize
+                        ? Mono.empty()
+                        : findDoctorPage(doctorId, status,
+                                AppointmentCursor.of(chunk.get(chunk.size() - 1)), streamChunkSize).collectList())
+                .concatMapIterable(chunk -> chunk)
                 .map(this::toDto);
     }
     
+    private Flux<Appointment> findPatientPage(UUID patientId, AppointmentStatus status,
+                                              AppointmentCursor after, int limit) {
+        if (status != null) {
+            return appointmentRepo.findPatientPageByStatusIn(
+                    patientId, new String[]{status.name()}, after.scheduledAt(), after.id(), limit);
+        }
+        return appointmentRepo.findPatientPage(patientId, after.scheduledAt(), after.id(), limit);
+    }
+    
+    private Flux<Appointment> findDoctorPage(UUID doctorId, AppointmentStatus status,
+                                             AppointmentCursor after, int limit) {
+        if (status != null) {
+            return appointmentRepo.findDoctorPageByStatusIn(
+                    doctorId, new String[]{status.name()}, after.scheduledAt(), after.id(), limit);
+        }
+        return appointmentRepo.findDoctorPage(doctorId, after.scheduledAt(), after.id(), limit);
+    }
+    
+    /**
+     * Builds a page from a query that fetched one row more than the page size; the
+     * extra row only signals that a next page exists.
+     */
+    private Mono<CursorPage<AppointmentDto>> toCursorPage(Flux<Appointment> rows, int limit) {
+        return rows.collectList()
+                .map(appointments -> {
+                    boolean hasNext = appointments.size() > limit;
+                    List<Appointment> page = hasNext ? appointments.subList(0, limit) : appointments;
+                    String nextCursor = hasNext
+                            ? AppointmentCursor.of(page.get(page.size() - 1)).encode()
+                            : null;
+                    return CursorPage.of(page.stream().map(this::toDto).toList(), limit, nextCursor);
+                });
+    }
+    
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+    
     public Mono<AppointmentDto> getAppointment(UUID appointmentId) {
         return appointmentRepo.findById(appointmentId)
                 .map(this::toDto);
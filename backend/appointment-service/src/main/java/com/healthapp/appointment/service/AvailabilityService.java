@@ -2,21 +2,19 @@ package com.healthapp.appointment.service;
 
 import com.healthapp.appointment.domain.*;
 import com.healthapp.appointment.dto.*;
-import com.healthapp.appointment.repository.AvailableSlotRepository;
 import com.healthapp.appointment.repository.BlockedSlotRepository;
 import com.healthapp.appointment.repository.WeeklyAvailabilityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -25,11 +23,9 @@ import java.util.UUID;
 public class AvailabilityService {
     
     private final WeeklyAvailabilityRepository weeklyRepo;
-    private final AvailableSlotRepository slotRepo;
     private final BlockedSlotRepository blockedRepo;
-    
-    @Value("${appointment.slots.generation-days-ahead:30}")
-    private int slotGenerationDaysAhead;
+    private final SlotGenerationService slotGenerationService;
+    private final SlotRegenerationScheduler regenerationScheduler;
     
     private static final String[] DAY_NAMES = {
         "Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"
@@ -60,7 +56,7 @@ public class AvailabilityService {
                     
                     return weeklyRepo.save(slot);
                 }))
-                .doOnSuccess(slot -> regenerateSlots(doctorId).subscribe())
+                .doOnSuccess(slot -> requestRegenerationForDays(doctorId, slot.getDayOfWeek()))
                 .map(this::toDto);
     }
     
@@ -79,9 +75,10 @@ public class AvailabilityService {
                             .updatedAt(Instant.now())
                             .build();
                     
-                    return weeklyRepo.save(updated);
+                    int previousDay = existing.getDayOfWeek();
+                    return weeklyRepo.save(updated)
+                            .doOnSuccess(saved -> requestRegenerationForDays(doctorId, previousDay, saved.getDayOfWeek()));
                 })
-                .doOnSuccess(slot -> regenerateSlots(doctorId).subscribe())
                 .map(this::toDto);
     }
     
@@ -93,7 +90,7 @@ public class AvailabilityService {
                     slot.setUpdatedAt(Instant.now());
                     return weeklyRepo.save(slot);
                 })
-                .doOnSuccess(slot -> regenerateSlots(doctorId).subscribe())
+                .doOnNext(slot -> requestRegenerationForDays(doctorId, slot.getDayOfWeek()))
                 .then();
     }
     
@@ -105,61 +102,16 @@ public class AvailabilityService {
                 })
                 .flatMap(weeklyRepo::save)
                 .thenMany(Flux.fromIterable(schedule)
-                        .flatMap(request -> addWeeklySlot(doctorId, request)));
+                        .flatMap(request -> addWeeklySlot(doctorId, request)))
+                .doOnComplete(() -> regenerationScheduler.requestRegeneration(doctorId));
     }
     
+    /**
+     * Queues a regeneration of the doctor's slots. Requests are coalesced per doctor,
+     * so the returned Mono completes once the request is queued, not when slots are written.
+     */
     public Mono<Void> regenerateSlots(UUID doctorId) {
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = startDate.plusDays(slotGenerationDaysAhead);
-        
-        return weeklyRepo.findByDoctorIdAndIsActive(doctorId, true)
-                .collectList()
-                .flatMap(weeklySlots -> generateSlotsForDateRange(doctorId, weeklySlots, startDate, endDate));
-    }
-    
-    private Mono<Void> generateSlotsForDateRange(
-            UUID doctorId,
-            List<WeeklyAvailability> weeklySlots,
-            LocalDate startDate,
-            LocalDate endDate) {
-        
-        List<AvailableSlot> slotsToCreate = new ArrayList<>();
-        
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            int dayOfWeek = date.getDayOfWeek().getValue() % 7; // Convert to 0-6 (Sun-Sat)
-            
-            for (WeeklyAvailability weekly : weeklySlots) {
-                if (weekly.getDayOfWeek().equals(dayOfWeek)) {
-                    LocalTime current = weekly.getStartTime();
-                    while (current.plusMinutes(weekly.getSlotDurationMinutes()).isBefore(weekly.getEndTime()) ||
-                           current.plusMinutes(weekly.getSlotDurationMinutes()).equals(weekly.getEndTime())) {
-                        
-                        AvailableSlot slot = AvailableSlot.builder()
-                                .doctorId(doctorId)
-                                .clinicId(weekly.getClinicId())
-                                .slotDate(date)
-                                .startTime(current)
-                                .endTime(current.plusMinutes(weekly.getSlotDurationMinutes()))
-                                .consultationType(weekly.getConsultationType())
-                                .slotDurationMinutes(weekly.getSlotDurationMinutes())
-                                .status(SlotStatus.AVAILABLE)
-                                .createdAt(Instant.now())
-                                .build();
-                        
-                        slotsToCreate.add(slot);
-                        
-                        current = current.plusMinutes(
-                                weekly.getSlotDurationMinutes() + weekly.getBufferMinutes());
-                    }
-                }
-            }
-        }
-        
-        // Delete existing future available slots and insert new ones
-        return slotRepo.deleteByDoctorIdAndSlotDateAfterAndStatus(doctorId, startDate.minusDays(1))
-                .then(Flux.fromIterable(slotsToCreate)
-                        .flatMap(slotRepo::save)
-                        .then());
+        return Mono.fromRunnable(() -> regenerationScheduler.requestRegeneration(doctorId));
     }
     
     public Mono<BlockedSlot> blockSlot(UUID doctorId, BlockSlotRequest request) {
@@ -175,14 +127,25 @@ public class AvailabilityService {
                 .build();
         
         return blockedRepo.save(block)
-                .doOnSuccess(b -> regenerateSlots(doctorId).subscribe());
+                .doOnSuccess(b -> regenerationScheduler.requestRegeneration(
+                        doctorId, slotGenerationService.datesCovering(b)));
     }
     
     public Mono<Void> unblockSlot(UUID doctorId, UUID blockId) {
         return blockedRepo.findById(blockId)
                 .filter(block -> block.getDoctorId().equals(doctorId))
-                .flatMap(blockedRepo::delete)
-                .doOnSuccess(v -> regenerateSlots(doctorId).subscribe());
+                .flatMap(block -> blockedRepo.delete(block).thenReturn(block))
+                .doOnNext(block -> regenerationScheduler.requestRegeneration(
+                        doctorId, slotGenerationService.datesCovering(block)))
+                .then();
+    }
+    
+    private void requestRegenerationForDays(UUID doctorId, int... daysOfWeek) {
+        Set<LocalDate> dates = new HashSet<>();
+        for (int dayOfWeek : daysOfWeek) {
+            dates.addAll(slotGenerationService.horizonDatesForDayOfWeek(dayOfWeek));
+        }
+        regenerationScheduler.requestRegeneration(doctorId, dates);
     }
     
     public Flux<BlockedSlot> getBlockedSlots(UUID doctorId) {
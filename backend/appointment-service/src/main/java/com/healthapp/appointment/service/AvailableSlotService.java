@@ -1,29 +1,35 @@
 package com.healthapp.appointment.service;
 
-import com.healthapp.appointment.domain.AvailableSlot;
 import com.healthapp.appointment.domain.ConsultationType;
-import com.healthapp.appointment.domain.SlotStatus;
 import com.healthapp.appointment.dto.*;
-import com.healthapp.appointment.repository.AvailableSlotRepository;
+import com.healthapp.common.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AvailableSlotService {
     
-    private final AvailableSlotRepository slotRepo;
+    private final SlotAvailabilityIndex slotIndex;
+    private final SlotGenerationService slotGenerationService;
     
+    @Value("${appointment.slots.max-query-days:31}")
+    private int maxQueryDays;
+    
+    /**
+     * Returns the available slots between the given dates. The range is clamped to the
+     * booking horizon (today to the last generated day), since no slots exist outside it
+     * and every day read is held in the slot index.
+     */
     public Mono<AvailableSlotsResponse> getAvailableSlots(
             UUID doctorId,
             LocalDate startDate,
@@ -31,52 +37,43 @@ public class AvailableSlotService {
             ConsultationType consultationType,
             UUID clinicId) {
         
-        var slotsFlux = consultationType != null
-                ? slotRepo.findByDoctorIdAndDateRangeAndType(doctorId, startDate, endDate, consultationType)
-                : slotRepo.findByDoctorIdAndDateRange(doctorId, startDate, endDate);
+        if (endDate.isBefore(startDate)) {
+            return Mono.error(new ValidationException("endDate", "must not be before startDate"));
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxQueryDays) {
+            return Mono.error(new ValidationException("endDate",
+                    "range must not exceed " + maxQueryDays + " days"));
+        }
         
-        if (clinicId != null) {
-            slotsFlux = slotsFlux.filter(s -> clinicId.equals(s.getClinicId()));
+        LocalDate today = LocalDate.now();
+        LocalDate horizonEnd = slotGenerationService.horizonEnd();
+        LocalDate from = startDate.isBefore(today) ? today : startDate;
+        LocalDate to = endDate.isAfter(horizonEnd) ? horizonEnd : endDate;
+        if (from.isAfter(to)) {
+            return Mono.just(buildResponse(doctorId, startDate, endDate, List.of()));
         }
         
-        return slotsFlux
-                .collectList()
-                .map(slotList -> buildResponse(doctorId, startDate, endDate, slotList));
+        return slotIndex.getAvailableDays(doctorId, from, to, consultationType, clinicId)
+                .map(days -> buildResponse(doctorId, startDate, endDate, days));
     }
     
     private AvailableSlotsResponse buildResponse(
             UUID doctorId,
             LocalDate startDate,
             LocalDate endDate,
-            List<AvailableSlot> slots) {
-        
-        Map<LocalDate, List<SlotDto>> groupedSlots = slots.stream()
-                .map(this::toSlotDto)
-                .collect(Collectors.groupingBy(SlotDto::getDate));
+            List<DaySlots> days) {
         
-        List<DaySlots> days = groupedSlots.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> DaySlots.of(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+        int totalSlots = 0;
+        for (DaySlots day : days) {
+            totalSlots += day.getSlots().size();
+        }
         
         return AvailableSlotsResponse.builder()
                 .doctorId(doctorId)
                 .startDate(startDate)
                 .endDate(endDate)
                 .days(days)
-                .totalAvailableSlots(slots.size())
-                .build();
-    }
-    
-    private SlotDto toSlotDto(AvailableSlot slot) {
-        return SlotDto.builder()
-                .slotId(slot.getId())
-                .date(slot.getSlotDate())
-                .startTime(slot.getStartTime())
-                .endTime(slot.getEndTime())
-                .durationMinutes(slot.getSlotDurationMinutes())
-                .consultationType(slot.getConsultationType())
-                .clinicId(slot.getClinicId())
+                .totalAvailableSlots(totalSlots)
                 .build();
     }
 }
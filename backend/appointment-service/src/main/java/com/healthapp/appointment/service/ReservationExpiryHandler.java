@@ -1,53 +1,91 @@
 package com.healthapp.appointment.service;
 
 import com.healthapp.appointment.domain.Appointment;
-import com.healthapp.appointment.domain.AppointmentStatus;
-import com.healthapp.appointment.domain.SlotStatus;
-import com.healthapp.appointment.event.AppointmentEventPublisher;
-import com.healthapp.appointment.repository.AppointmentRepository;
-import com.healthapp.appointment.repository.AvailableSlotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Releases reservations whose payment window has passed.
+ * <p>
+ * Expired rows are claimed in bounded batches with {@code FOR UPDATE SKIP LOCKED}, so
+ * every replica can poll frequently and the work is split between them without duplicates.
+ * Expiry events are written to the outbox in the same transaction as each batch.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ReservationExpiryHandler {
     
-    private final AppointmentRepository appointmentRepo;
-    private final AvailableSlotRepository slotRepo;
-    private final AppointmentEventPublisher eventPublisher;
+    private final AppointmentService appointmentService;
+    private final MeterRegistry meterRegistry;
     
-    @Scheduled(fixedRate = 60000) // Run every minute
+    @Value("${appointment.reservation.expiry-batch-size:100}")
+    private int batchSize;
+    
+    @Value("${appointment.reservation.expiry-max-batches:50}")
+    private int maxBatchesPerRun;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    private Counter releasedCounter;
+    private Timer releaseLagTimer;
+    
+    @PostConstruct
+    void registerMetrics() {
+        releasedCounter = meterRegistry.counter("appointment.reservations.expired");
+        releaseLagTimer = Timer.builder("appointment.reservations.expiry.lag")
+                .description("Time between reservation expiry and slot release")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${appointment.reservation.expiry-poll-ms:5000}")
     public void handleExpiredReservations() {
+        // Skip if the previous run on this replica is still draining
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        
         log.debug("Checking for expired reservations");
         
-        appointmentRepo.findExpiredReservations(Instant.now())
-                .flatMap(this::releaseReservation)
+        Flux.range(0, maxBatchesPerRun)
+                .concatMap(i -> claimBatch(), 1)
+                .takeUntil(batch -> batch.size() < batchSize)
+                .doFinally(signal -> running.set(false))
                 .subscribe(
-                        appointment -> log.info("Released expired reservation: {}", appointment.getId()),
-                        error -> log.error("Error releasing reservation", error)
+                        batch -> {
+                            if (!batch.isEmpty()) {
+                                log.info("Released {} expired reservations", batch.size());
+                            }
+                        },
+                        error -> log.error("Error releasing reservations", error)
                 );
     }
     
-    private reactor.core.publisher.Mono<Appointment> releaseReservation(Appointment appointment) {
-        return reactor.core.publisher.Mono.defer(() -> {
-            Appointment updated = appointment.toBuilder()
-                    .status(AppointmentStatus.CANCELLED_SYSTEM)
-                    .cancellationReason("Reservation expired - payment not completed")
-                    .cancelledAt(Instant.now())
-                    .updatedAt(Instant.now())
-                    .build();
-            
-            return appointmentRepo.save(updated);
-        })
-        .flatMap(updated ->
-                slotRepo.updateStatus(updated.getSlotId(), SlotStatus.AVAILABLE, null)
-                        .thenReturn(updated))
-        .doOnSuccess(updated -> eventPublisher.publishExpired(updated));
+    private Mono<List<Appointment>> claimBatch() {
+        Instant now = Instant.now();
+        return appointmentService.expireReservations(now, batchSize)
+                .doOnNext(batch -> batch.forEach(appointment -> onReleased(appointment, now)));
+    }
+    
+    private void onReleased(Appointment appointment, Instant now) {
+        releasedCounter.increment();
+        if (appointment.getReservedUntil() != null) {
+            releaseLagTimer.record(Duration.between(appointment.getReservedUntil(), now));
+        }
+        log.debug("Released expired reservation: {}", appointment.getId());
     }
 }
@@ -0,0 +1,322 @@
+package com.healthapp.appointment.service;
+
+import com.healthapp.appointment.domain.Appointment;
+import com.healthapp.appointment.domain.AvailableSlot;
+import com.healthapp.appointment.domain.ConsultationType;
+import com.healthapp.appointment.domain.SlotStatus;
+import com.healthapp.appointment.dto.DaySlots;
+import com.healthapp.appointment.dto.SlotDto;
+import com.healthapp.appointment.repository.AvailableSlotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory, per-doctor-per-day index of generated slots.
+ * <p>
+ * Each indexed day holds the day's slots (all statuses) sorted by start time and a
+ * bitset marking which of them are AVAILABLE. Slot status changes flip single bits;
+ * regeneration invalidates exactly the regenerated days. Days are read through from
+ * Postgres on a miss and expire after {@code appointment.slots.index.ttl-seconds},
+ * which also bounds staleness from writes made by other replicas. Status changes are
+ * applied only once the transaction that made them commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotAvailabilityIndex {
+
+    // Change counters are striped by doctor so they take fixed memory; a collision only skips caching a load
+    private static final int VERSION_STRIPES = 4096;
+
+    private final AvailableSlotRepository slotRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${appointment.slots.index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${appointment.slots.index.max-days:200000}")
+    private int maxDays;
+
+    private final Map<DayKey, DayIndex> days = new ConcurrentHashMap<>();
+    private final AtomicLongArray doctorVersions = new AtomicLongArray(VERSION_STRIPES);
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        hitCounter = meterRegistry.counter("appointment.slots.index.requests", "result", "hit");
+        missCounter = meterRegistry.counter("appointment.slots.index.requests", "result", "miss");
+        Gauge.builder("appointment.slots.index.hit.ratio", this, SlotAvailabilityIndex::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("appointment.slots.index.days", days, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the available slots per day in the range, reading missing days from the
+     * database in a single query. Only days with at least one matching slot are returned.
+     * Every day in the range is cached, so callers must bound it (see
+     * {@link AvailableSlotService#getAvailableSlots}).
+     */
+    public Mono<List<DaySlots>> getAvailableDays(
+            UUID doctorId,
+            LocalDate startDate,
+            LocalDate endDate,
+            ConsultationType consultationType,
+            UUID clinicId) {
+
+        long now = System.currentTimeMillis();
+        Map<LocalDate, DayIndex> found = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayIndex day = days.get(new DayKey(doctorId, date));
+            if (day != null && day.expiresAt > now) {
+                found.put(date, day);
+                hitCounter.increment();
+            } else {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+                missCounter.increment();
+            }
+        }
+
+        if (firstMissing == null) {
+            return Mono.just(toDaySlots(startDate, endDate, found, consultationType, clinicId));
+        }
+
+        LocalDate loadStart = firstMissing;
+        LocalDate loadEnd = lastMissing;
+        long version = doctorVersions.get(stripe(doctorId));
+
+        return slotRepo.findAllByDoctorIdAndDateRange(doctorId, loadStart, loadEnd)
+                .collectList()
+                .map(slots -> {
+                    Map<LocalDate, DayIndex> loaded = buildDays(slots, loadStart, loadEnd);
+                    install(doctorId, loaded, version);
+                    loaded.forEach(found::putIfAbsent);
+                    return toDaySlots(startDate, endDate, found, consultationType, clinicId);
+                });
+    }
+
+    /**
+     * Records a slot status change made for the given appointment once the current
+     * transaction commits, or right away outside a transaction.
+     */
+    public Mono<Void> onSlotStatusChanged(Appointment appointment, SlotStatus status) {
+        return onSlotStatusChanged(List.of(appointment), status);
+    }
+
+    /**
+     * Records the same status change for several appointments once the current
+     * transaction commits, or right away outside a transaction.
+     */
+    public Mono<Void> onSlotStatusChanged(Collection<Appointment> appointments, SlotStatus status) {
+        if (appointments.isEmpty()) {
+            return Mono.empty();
+        }
+        Runnable apply = () -> appointments.forEach(appointment -> applySlotStatus(appointment, status));
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return Mono.fromRunnable(apply);
+                    }
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(apply);
+                        }
+                    });
+                    return Mono.empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(apply))
+                .then();
+    }
+
+    /**
+     * Flips the availability bit of one slot, or drops the day if the slot is unknown to it.
+     */
+    public void updateSlotStatus(UUID doctorId, LocalDate date, UUID slotId, SlotStatus status) {
+        doctorVersions.incrementAndGet(stripe(doctorId));
+        days.computeIfPresent(new DayKey(doctorId, date),
+                (key, day) -> day.setAvailable(slotId, status == SlotStatus.AVAILABLE) ? day : null);
+    }
+
+    /**
+     * Drops the given days for a doctor, e.g. after their slots were regenerated.
+     */
+    public void invalidate(UUID doctorId, Collection<LocalDate> dates) {
+        doctorVersions.incrementAndGet(stripe(doctorId));
+        for (LocalDate date : dates) {
+            days.remove(new DayKey(doctorId, date));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${appointment.slots.index.sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        days.values().removeIf(day -> day.expiresAt <= now);
+    }
+
+    private void applySlotStatus(Appointment appointment, SlotStatus status) {
+        if (appointment.getSlotId() == null || appointment.getScheduledAt() == null) {
+            return;
+        }
+        LocalDate date = appointment.getScheduledAt().atZone(ZoneId.systemDefault()).toLocalDate();
+        updateSlotStatus(appointment.getDoctorId(), date, appointment.getSlotId(), status);
+    }
+
+    private void install(UUID doctorId, Map<LocalDate, DayIndex> loaded, long version) {
+        if (days.size() + loaded.size() > maxDays) {
+            return;
+        }
+        // Checked per day under the map's lock, so a status change either lands on the
+        // installed day or makes the install skip it
+        int stripe = stripe(doctorId);
+        loaded.forEach((date, day) -> days.compute(new DayKey(doctorId, date),
+                (key, existing) -> doctorVersions.get(stripe) == version ? day : existing));
+    }
+
+    private Map<LocalDate, DayIndex> buildDays(List<AvailableSlot> slots, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<AvailableSlot>> byDate = new HashMap<>();
+        for (AvailableSlot slot : slots) {
+            byDate.computeIfAbsent(slot.getSlotDate(), d -> new ArrayList<>()).add(slot);
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        Map<LocalDate, DayIndex> result = new HashMap<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            result.put(date, DayIndex.of(byDate.getOrDefault(date, List.of()), expiresAt));
+        }
+        return result;
+    }
+
+    private List<DaySlots> toDaySlots(
+            LocalDate startDate,
+            LocalDate endDate,
+            Map<LocalDate, DayIndex> found,
+            ConsultationType consultationType,
+            UUID clinicId) {
+
+        List<DaySlots> result = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayIndex day = found.get(date);
+            if (day == null) {
+                continue;
+            }
+            List<SlotDto> available = day.availableSlots(consultationType, clinicId);
+            if (!available.isEmpty()) {
+                result.add(DaySlots.of(date, available));
+            }
+        }
+        return result;
+    }
+
+    private static int stripe(UUID doctorId) {
+        return (doctorId.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private record DayKey(UUID doctorId, LocalDate date) {
+    }
+
+    /**
+     * Immutable slot list for one day plus a mutable availability bitset.
+     */
+    private static final class DayIndex {
+        private final SlotDto[] slots;
+        private final AtomicLongArray availableBits;
+        private final long expiresAt;
+
+        private DayIndex(SlotDto[] slots, AtomicLongArray availableBits, long expiresAt) {
+            this.slots = slots;
+            this.availableBits = availableBits;
+            this.expiresAt = expiresAt;
+        }
+
+        static DayIndex of(List<AvailableSlot> daySlots, long expiresAt) {
+            List<AvailableSlot> sorted = new ArrayList<>(daySlots);
+            sorted.sort(Comparator.comparing(AvailableSlot::getStartTime));
+
+            SlotDto[] slots = new SlotDto[sorted.size()];
+            long[] words = new long[(sorted.size() + 63) / 64];
+            for (int i = 0; i < sorted.size(); i++) {
+                AvailableSlot slot = sorted.get(i);
+                slots[i] = SlotDto.builder()
+                        .slotId(slot.getId())
+                        .date(slot.getSlotDate())
+                        .startTime(slot.getStartTime())
+                        .endTime(slot.getEndTime())
+                        .durationMinutes(slot.getSlotDurationMinutes())
+                        .consultationType(slot.getConsultationType())
+                        .clinicId(slot.getClinicId())
+                        .build();
+                if (slot.getStatus() == SlotStatus.AVAILABLE) {
+                    words[i >> 6] |= 1L << (i & 63);
+                }
+            }
+            return new DayIndex(slots, new AtomicLongArray(words), expiresAt);
+        }
+
+        boolean setAvailable(UUID slotId, boolean available) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].getSlotId().equals(slotId)) {
+                    long mask = 1L << (i & 63);
+                    availableBits.getAndUpdate(i >> 6, word -> available ? word | mask : word & ~mask);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<SlotDto> availableSlots(ConsultationType consultationType, UUID clinicId) {
+            List<SlotDto> result = new ArrayList<>();
+            for (int i = 0; i < slots.length; i++) {
+                if ((availableBits.get(i >> 6) & (1L << (i & 63))) == 0) {
+                    continue;
+                }
+                SlotDto slot = slots[i];
+                if (consultationType != null && slot.getConsultationType() != consultationType) {
+                    continue;
+                }
+                if (clinicId != null && !clinicId.equals(slot.getClinicId())) {
+                    continue;
+                }
+                result.add(slot);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.healthapp.appointment.service;
+
+import com.healthapp.appointment.domain.AvailableSlot;
+import com.healthapp.appointment.domain.BlockedSlot;
+import com.healthapp.appointment.domain.ConsultationType;
+import com.healthapp.appointment.domain.SlotStatus;
+import com.healthapp.appointment.domain.WeeklyAvailability;
+import com.healthapp.appointment.repository.AvailableSlotBatchRepository;
+import com.healthapp.appointment.repository.AvailableSlotRepository;
+import com.healthapp.appointment.repository.BlockedSlotRepository;
+import com.healthapp.appointment.repository.WeeklyAvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Materializes bookable slots from a doctor's weekly availability.
+ * <p>
+ * Generation is scoped to a set of dates so that a change to one weekday rule or one
+ * blocked period only rewrites the affected days. Slots overlapping a {@link BlockedSlot}
+ * are never generated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotGenerationService {
+
+    private final WeeklyAvailabilityRepository weeklyRepo;
+    private final AvailableSlotRepository slotRepo;
+    private final AvailableSlotBatchRepository slotBatchRepo;
+    private final BlockedSlotRepository blockedRepo;
+    private final SlotAvailabilityIndex slotIndex;
+
+    @Value("${appointment.slots.generation-days-ahead:30}")
+    private int slotGenerationDaysAhead;
+
+    /**
+     * Regenerates the doctor's whole booking horizon.
+     */
+    public Mono<Void> regenerateSlots(UUID doctorId) {
+        return regenerateDates(doctorId, horizonDates());
+    }
+
+    /**
+     * Regenerates only the given dates; dates outside the booking horizon are ignored.
+     */
+    public Mono<Void> regenerateDates(UUID doctorId, Collection<LocalDate> dates) {
+        LocalDate today = LocalDate.now();
+        LocalDate horizonEnd = today.plusDays(slotGenerationDaysAhead);
+        TreeSet<LocalDate> scope = new TreeSet<>();
+        for (LocalDate date : dates) {
+            if (!date.isBefore(today) && !date.isAfter(horizonEnd)) {
+                scope.add(date);
+            }
+        }
+        if (scope.isEmpty()) {
+            return Mono.empty();
+        }
+
+        LocalDate startDate = scope.first();
+        LocalDate endDate = scope.last();
+
+        return Mono.zip(
+                        weeklyRepo.findByDoctorIdAndIsActive(doctorId, true).collectList(),
+                        blockedRepo.findOverlappingBlocks(doctorId, toInstant(startDate, LocalTime.MIN),
+                                toInstant(endDate.plusDays(1), LocalTime.MIN)).collectList(),
+                        slotRepo.findAllByDoctorIdAndDateRange(doctorId, startDate, endDate)
+                                .filter(slot -> scope.contains(slot.getSlotDate()))
+                                .collectList())
+                .flatMap(tuple -> applySlotDiff(doctorId,
+                        tuple.getT3(), generateSlots(doctorId, tuple.getT1(), tuple.getT2(), scope)))
+                .doOnTerminate(() -> slotIndex.invalidate(doctorId, scope));
+    }
+
+    /**
+     * All dates in the booking horizon starting today.
+     */
+    public Set<LocalDate> horizonDates() {
+        LocalDate today = LocalDate.now();
+        return datesBetween(today, today.plusDays(slotGenerationDaysAhead));
+    }
+
+    /**
+     * The date that enters the booking horizon today.
+     */
+    public LocalDate horizonEnd() {
+        return LocalDate.now().plusDays(slotGenerationDaysAhead);
+    }
+
+    /**
+     * Dates from the day after {@code lastGenerated}, or today if later, to the end of
+     * the booking horizon.
+     */
+    public Set<LocalDate> horizonDatesAfter(LocalDate lastGenerated) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = lastGenerated.plusDays(1);
+        return datesBetween(start.isBefore(today) ? today : start, horizonEnd());
+    }
+
+    /**
+     * Dates in the booking horizon falling on the given day (0-6, Sun-Sat).
+     */
+    public Set<LocalDate> horizonDatesForDayOfWeek(int dayOfWeek) {
+        Set<LocalDate> dates = new HashSet<>();
+        for (LocalDate date : horizonDates()) {
+            if (toDayOfWeek(date) == dayOfWeek) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Dates touched by a blocked period, in the server time zone.
+     */
+    public Set<LocalDate> datesCovering(BlockedSlot block) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate start = block.getStartDatetime().atZone(zone).toLocalDate();
+        LocalDate end = block.getEndDatetime().atZone(zone).toLocalDate();
+        LocalDate horizonEnd = horizonEnd();
+        return datesBetween(start, end.isAfter(horizonEnd) ? horizonEnd : end);
+    }
+
+    private List<AvailableSlot> generateSlots(
+            UUID doctorId,
+            List<WeeklyAvailability> weeklySlots,
+            List<BlockedSlot> blocks,
+            Set<LocalDate> dates) {
+
+        List<AvailableSlot> slotsToCreate = new ArrayList<>();
+
+        for (LocalDate date : dates) {
+            int dayOfWeek = toDayOfWeek(date);
+
+            for (WeeklyAvailability weekly : weeklySlots) {
+                if (weekly.getDayOfWeek().equals(dayOfWeek)) {
+                    LocalTime current = weekly.getStartTime();
+                    while (current.plusMinutes(weekly.getSlotDurationMinutes()).isBefore(weekly.getEndTime()) ||
+                           current.plusMinutes(weekly.getSlotDurationMinutes()).equals(weekly.getEndTime())) {
+
+                        LocalTime end = current.plusMinutes(weekly.getSlotDurationMinutes());
+
+                        if (!isBlocked(blocks, date, current, end)) {
+                            AvailableSlot slot = AvailableSlot.builder()
+                                    .doctorId(doctorId)
+                                    .clinicId(weekly.getClinicId())
+                                    .slotDate(date)
+                                    .startTime(current)
+                                    .endTime(end)
+                                    .consultationType(weekly.getConsultationType())
+                                    .slotDurationMinutes(weekly.getSlotDurationMinutes())
+                                    .status(SlotStatus.AVAILABLE)
+                                    .createdAt(Instant.now())
+                                    .build();
+
+                            slotsToCreate.add(slot);
+                        }
+
+                        current = current.plusMinutes(
+                                weekly.getSlotDurationMinutes() + weekly.getBufferMinutes());
+                    }
+                }
+            }
+        }
+
+        return slotsToCreate;
+    }
+
+    private boolean isBlocked(List<BlockedSlot> blocks, LocalDate date, LocalTime start, LocalTime end) {
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        Instant slotStart = toInstant(date, start);
+        Instant slotEnd = toInstant(date, end);
+        for (BlockedSlot block : blocks) {
+            if (block.getStartDatetime().isBefore(slotEnd) && block.getEndDatetime().isAfter(slotStart)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reconciles the stored slots with the freshly generated ones: AVAILABLE slots
+     * that no longer match the schedule are deleted, and only slots that are not
+     * already present are inserted. Reserved and booked slots are never touched.
+     */
+    private Mono<Void> applySlotDiff(UUID doctorId, List<AvailableSlot> existing, List<AvailableSlot> generated) {
+        Set<SlotShape> generatedShapes = new HashSet<>();
+        for (AvailableSlot slot : generated) {
+            generatedShapes.add(SlotShape.of(slot));
+        }
+
+        List<UUID> staleIds = new ArrayList<>();
+        Set<SlotPosition> occupied = new HashSet<>();
+        for (AvailableSlot slot : existing) {
+            if (slot.getStatus() == SlotStatus.AVAILABLE && !generatedShapes.contains(SlotShape.of(slot))) {
+                staleIds.add(slot.getId());
+            } else {
+                occupied.add(SlotPosition.of(slot));
+            }
+        }
+
+        List<AvailableSlot> toInsert = new ArrayList<>();
+        for (AvailableSlot slot : generated) {
+            if (occupied.add(SlotPosition.of(slot))) {
+                toInsert.add(slot);
+            }
+        }
+
+        return slotBatchRepo.deleteAvailableByIds(staleIds)
+                .zipWith(Mono.defer(() -> slotBatchRepo.insertAll(toInsert)))
+                .doOnSuccess(counts -> log.info(
+                        "Regenerated slots for doctor {}: {} deleted, {} inserted, {} unchanged",
+                        doctorId, counts.getT1(), counts.getT2(), generated.size() - toInsert.size()))
+                .then();
+    }
+
+    private static Set<LocalDate> datesBetween(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return Collections.emptySet();
+        }
+        Set<LocalDate> dates = new TreeSet<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private static int toDayOfWeek(LocalDate date) {
+        return date.getDayOfWeek().getValue() % 7; // Convert to 0-6 (Sun-Sat)
+    }
+
+    private static Instant toInstant(LocalDate date, LocalTime time) {
+        return date.atTime(time).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * Identity of a slot as enforced by the {@code unique_slot} constraint.
+     */
+    private record SlotPosition(LocalDate date, LocalTime startTime, UUID clinicId) {
+        static SlotPosition of(AvailableSlot slot) {
+            return new SlotPosition(slot.getSlotDate(), slot.getStartTime(), slot.getClinicId());
+        }
+    }
+
+    /**
+     * Full shape of a generated slot; an AVAILABLE row is kept only if its shape is still generated.
+     */
+    private record SlotShape(LocalDate date, LocalTime startTime, LocalTime endTime,
+                             UUID clinicId, ConsultationType consultationType) {
+        static SlotShape of(AvailableSlot slot) {
+            return new SlotShape(slot.getSlotDate(), slot.getStartTime(), slot.getEndTime(),
+                    slot.getClinicId(), slot.getConsultationType());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.healthapp.appointment.service;
+
+import com.healthapp.appointment.repository.AvailableSlotRepository;
+import com.healthapp.appointment.repository.WeeklyAvailabilityRepository;
+import io.r2dbc.spi.Connection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rolls the booking horizon forward once a day for every doctor with an active schedule.
+ * <p>
+ * Each doctor is generated from the day after their last existing slot up to the horizon
+ * end, so a missed or failed run is caught up by the next one. Dates are submitted through
+ * {@link SlotRegenerationScheduler}, so the job never regenerates a doctor concurrently with
+ * an availability change; a batch of doctors is queued at once and the job waits for their
+ * runs before queueing the next, bounded by the scheduler's workers. The run holds a Postgres
+ * advisory lock for its duration, so only one replica extends the horizon; the lock is
+ * tied to the session and released if the holder dies.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotHorizonJob {
+    
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(hashtext('slot-horizon-job'))";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(hashtext('slot-horizon-job'))";
+    
+    private final WeeklyAvailabilityRepository weeklyRepo;
+    private final AvailableSlotRepository slotRepo;
+    private final SlotGenerationService slotGenerationService;
+    private final SlotRegenerationScheduler regenerationScheduler;
+    private final R2dbcEntityTemplate template;
+    
+    @Value("${appointment.slots.horizon.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${appointment.slots.horizon.parallelism:8}")
+    private int parallelism;
+    
+    @Scheduled(cron = "${appointment.slots.horizon.cron:0 5 0 * * *}") // Default: 00:05 daily
+    public void extendHorizon() {
+        template.getDatabaseClient()
+                .inConnection(connection -> querySingle(connection, TRY_LOCK)
+                        .flatMap(acquired -> {
+                            if (!acquired) {
+                                log.info("Slot horizon is being extended by another replica, skipping");
+                                return Mono.empty();
+                            }
+                            return extendAll()
+                                    .onErrorResume(error -> {
+                                        log.error("Error extending slot horizon", error);
+                                        return Mono.empty();
+                                    })
+                                    .then(querySingle(connection, UNLOCK));
+                        }))
+                .subscribe(
+                        null,
+                        error -> log.error("Could not run slot horizon job", error));
+    }
+    
+    private Mono<Void> extendAll() {
+        LocalDate horizonEnd = slotGenerationService.horizonEnd();
+        LocalDate noSlotsYet = LocalDate.now().minusDays(1);
+        AtomicLong doctors = new AtomicLong();
+    
+        log.info("Extending slot horizon to {}", horizonEnd);
+    
+        return weeklyRepo.findActiveDoctorIds()
+                .buffer(batchSize)
+                .concatMap(batch -> Flux.fromIterable(batch)
+                        .flatMap(doctorId -> slotRepo.findLastSlotDate(doctorId, noSlotsYet)
+                                .map(lastDate -> regenerationScheduler.regenerate(
+                                                doctorId, slotGenerationService.horizonDatesAfter(lastDate))
+                                        .doOnSuccess(v -> doctors.incrementAndGet())
+                                        .onErrorResume(e -> logFailure(doctorId, e)))
+                                .onErrorResume(e -> logFailure(doctorId, e).then(Mono.empty())), parallelism)
+                        .collectList()
+                        .flatMap(Mono::when))
+                .then()
+                .doOnSuccess(v -> log.info("Extended slot horizon to {} for {} doctors", horizonEnd, doctors.get()));
+    }
+    
+    private Mono<Void> logFailure(UUID doctorId, Throwable error) {
+        log.error("Failed to extend slot horizon for doctor {}", doctorId, error);
+        return Mono.empty();
+    }
+    
+    private static Mono<Boolean> querySingle(Connection connection, String sql) {
+        return Mono.from(connection.createStatement(sql).execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Boolean.class))));
+    }
+}
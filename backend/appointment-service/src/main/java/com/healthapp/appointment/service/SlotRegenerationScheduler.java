@@ -0,0 +1,227 @@
+package com.healthapp.appointment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Per-doctor coalescing queue for slot regeneration.
+ * <p>
+ * Requests for the same doctor that arrive within the debounce window collapse into
+ * a single run covering the union of their date scopes, at most one run per doctor is
+ * in flight at a time (requests made while running trigger exactly one follow-up run),
+ * and the number of doctors regenerated concurrently is bounded by the worker count.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotRegenerationScheduler {
+
+    private final SlotGenerationService slotGenerationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${appointment.slots.regeneration.debounce-ms:2000}")
+    private long debounceMs;
+
+    @Value("${appointment.slots.regeneration.workers:4}")
+    private int workers;
+
+    private final Map<UUID, RegenerationState> states = new ConcurrentHashMap<>();
+    private final Sinks.Many<UUID> readyQueue = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private Disposable worker;
+    private Counter requestedCounter;
+    private Counter coalescedCounter;
+    private Counter failedCounter;
+    private Timer lagTimer;
+    private Timer durationTimer;
+
+    @PostConstruct
+    void start() {
+        requestedCounter = meterRegistry.counter("appointment.slots.regeneration.requested");
+        coalescedCounter = meterRegistry.counter("appointment.slots.regeneration.coalesced");
+        failedCounter = meterRegistry.counter("appointment.slots.regeneration.failed");
+        lagTimer = Timer.builder("appointment.slots.regeneration.lag")
+                .description("Time from the first coalesced request to the start of the run")
+                .register(meterRegistry);
+        durationTimer = Timer.builder("appointment.slots.regeneration.duration")
+                .register(meterRegistry);
+        Gauge.builder("appointment.slots.regeneration.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Doctors waiting for a regeneration run")
+                .register(meterRegistry);
+
+        worker = readyQueue.asFlux()
+                .flatMap(this::run, workers)
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker != null) {
+            worker.dispose();
+        }
+    }
+
+    /**
+     * Requests a regeneration of the doctor's whole booking horizon. Never blocks;
+     * the run happens after the debounce window on the worker pool.
+     */
+    public void requestRegeneration(UUID doctorId) {
+        enqueue(doctorId, state -> state.fullHorizon = true);
+    }
+
+    /**
+     * Requests a regeneration limited to the given dates. Scopes requested for the same
+     * doctor within the debounce window are merged.
+     */
+    public void requestRegeneration(UUID doctorId, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        enqueue(doctorId, state -> state.dates.addAll(dates));
+    }
+
+    /**
+     * Same as {@link #requestRegeneration(UUID, Collection)}, but the returned Mono completes
+     * once a run covering the dates has finished, or errors if that run failed. The request
+     * is queued when this is called, not on subscription.
+     */
+    public Mono<Void> regenerate(UUID doctorId, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return Mono.empty();
+        }
+        Sinks.Empty<Void> done = Sinks.empty();
+        enqueue(doctorId, state -> {
+            state.dates.addAll(dates);
+            state.waiters.add(done);
+        });
+        return done.asMono();
+    }
+
+    private void enqueue(UUID doctorId, Consumer<RegenerationState> scope) {
+        requestedCounter.increment();
+        states.compute(doctorId, (id, state) -> {
+            if (state == null) {
+                state = new RegenerationState();
+            }
+            scope.accept(state);
+            if (state.firstRequestedAt == null) {
+                state.firstRequestedAt = Instant.now();
+            }
+            if (state.running) {
+                state.rerunRequested = true;
+                coalescedCounter.increment();
+            } else if (state.scheduled) {
+                coalescedCounter.increment();
+            } else {
+                state.scheduled = true;
+                queueDepth.incrementAndGet();
+                scheduleRun(id);
+            }
+            return state;
+        });
+    }
+
+    private void scheduleRun(UUID doctorId) {
+        Mono.delay(Duration.ofMillis(debounceMs))
+                .subscribe(tick -> readyQueue.emitNext(doctorId, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1))));
+    }
+
+    private Mono<Void> run(UUID doctorId) {
+        return Mono.defer(() -> {
+            RegenerationScope scope = new RegenerationScope();
+            states.computeIfPresent(doctorId, (id, state) -> {
+                state.scheduled = false;
+                state.running = true;
+                if (state.firstRequestedAt != null) {
+                    lagTimer.record(Duration.between(state.firstRequestedAt, Instant.now()));
+                    state.firstRequestedAt = null;
+                }
+                scope.fullHorizon = state.fullHorizon;
+                scope.dates = state.dates;
+                scope.waiters = state.waiters;
+                state.fullHorizon = false;
+                state.dates = new HashSet<>();
+                state.waiters = new ArrayList<>();
+                return state;
+            });
+            queueDepth.decrementAndGet();
+
+            Mono<Void> regeneration = scope.fullHorizon
+                    ? slotGenerationService.regenerateSlots(doctorId)
+                    : slotGenerationService.regenerateDates(doctorId, scope.dates);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return regeneration
+                    .doOnSuccess(v -> {
+                        sample.stop(durationTimer);
+                        scope.waiters.forEach(Sinks.Empty::tryEmitEmpty);
+                    })
+                    .onErrorResume(error -> {
+                        failedCounter.increment();
+                        log.error("Slot regeneration failed for doctor {}", doctorId, error);
+                        scope.waiters.forEach(waiter -> waiter.tryEmitError(error));
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> finish(doctorId));
+        });
+    }
+
+    private void finish(UUID doctorId) {
+        states.computeIfPresent(doctorId, (id, state) -> {
+            state.running = false;
+            if (!state.rerunRequested) {
+                return null;
+            }
+            state.rerunRequested = false;
+            state.scheduled = true;
+            queueDepth.incrementAndGet();
+            scheduleRun(id);
+            return state;
+        });
+    }
+
+    /**
+     * Mutable per-doctor state; only touched inside {@link ConcurrentHashMap#compute}.
+     */
+    private static final class RegenerationState {
+        private Instant firstRequestedAt;
+        private boolean fullHorizon;
+        private Set<LocalDate> dates = new HashSet<>();
+        private List<Sinks.Empty<Void>> waiters = new ArrayList<>();
+        private boolean scheduled;
+        private boolean running;
+        private boolean rerunRequested;
+    }
+
+    private static final class RegenerationScope {
+        private boolean fullHorizon;
+        private Set<LocalDate> dates = Set.of();
+        private List<Sinks.Empty<Void>> waiters = List.of();
+    }
+}
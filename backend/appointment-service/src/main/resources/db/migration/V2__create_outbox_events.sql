@@ -0,0 +1,16 @@
+-- V2__create_outbox_events.sql
+
+-- Transactional outbox: events are written in the same transaction as the
+-- appointment change and relayed to Kafka by OutboxRelay
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    
+    attempts INT NOT NULL DEFAULT 0,
+    locked_until TIMESTAMP WITH TIME ZONE,
+    
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,10 @@
+-- V3__add_appointment_keyset_indexes.sql
+
+-- Keyset pagination orders by (scheduled_at, id); including id lets the row-value
+-- comparison and ORDER BY be answered from the index at any page depth.
+-- These supersede the (patient_id, scheduled_at) and (doctor_id, scheduled_at) indexes.
+CREATE INDEX idx_appointments_patient_keyset ON appointments(patient_id, scheduled_at DESC, id DESC);
+CREATE INDEX idx_appointments_doctor_keyset ON appointments(doctor_id, scheduled_at, id);
+
+DROP INDEX IF EXISTS idx_appointments_patient;
+DROP INDEX IF EXISTS idx_appointments_doctor;
@@ -0,0 +1,7 @@
+-- V4__add_outbox_dead_letter.sql
+
+-- Events that exhausted outbox.relay.max-attempts are kept for inspection
+-- but no longer claimed by OutboxRelay
+ALTER TABLE outbox_events ADD COLUMN dead_lettered_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_outbox_events_pending ON outbox_events (id) WHERE dead_lettered_at IS NULL;
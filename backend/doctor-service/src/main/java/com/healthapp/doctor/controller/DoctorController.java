@@ -9,7 +9,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -64,6 +66,18 @@ public class DoctorController {
                 .map(doctor -> ApiResponse.success(doctor, "Profile updated successfully"));
     }
     
+    /**
+     * Streams all doctor profiles as NDJSON, ordered by ID (used by search reindexing).
+     * Pass the last received ID as {@code after} to resume an interrupted export.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DoctorDto> exportDoctors(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "500") int pageSize) {
+        
+        return doctorService.exportDoctors(after, Math.max(1, Math.min(pageSize, 1000)));
+    }
+    
     /**
      * Gets a doctor by ID (public endpoint).
      */
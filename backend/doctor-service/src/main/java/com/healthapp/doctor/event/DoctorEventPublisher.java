@@ -67,6 +67,25 @@ public class DoctorEventPublisher {
         );
     }
     
+    /**
+     * Publishes buffered profile views for a doctor as a counter delta.
+     */
+    public Mono<Void> publishDoctorCountersIncremented(UUID doctorId, long profileViews) {
+        BaseEvent event = BaseEvent.builder()
+                .eventType("DOCTOR_COUNTERS_INCREMENTED")
+                .correlationId(UUID.randomUUID().toString())
+                .metadata(Map.of(
+                        "aggregateId", doctorId.toString(),
+                        "aggregateType", "Doctor"
+                ))
+                .data(Map.of(
+                        "doctorId", doctorId.toString(),
+                        "profileViews", profileViews
+                ))
+                .build();
+        return publishEvent(KafkaTopics.DOCTOR_EVENTS, doctorId.toString(), event);
+    }
+    
     private BaseEvent createEvent(String eventType, Doctor doctor) {
         return BaseEvent.builder()
                 .eventType(eventType)
@@ -4,12 +4,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * DTO for doctor qualification information.
  */
 @Value
 @Builder
+@Jacksonized
 public class QualificationDto {
     String id;
     
@@ -2,12 +2,14 @@ package com.healthapp.doctor.model.dto;
 
 import lombok.Builder;
 import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * DTO for specialization information.
  */
 @Value
 @Builder
+@Jacksonized
 public class SpecializationDto {
     String id;
     String name;
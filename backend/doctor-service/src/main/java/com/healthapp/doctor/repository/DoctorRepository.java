@@ -42,14 +42,36 @@ public interface DoctorRepository extends R2dbcRepository<Doctor, UUID> {
     Flux<Doctor> findTopDoctors(int limit);
     
     /**
-     * Finds doctors by city through their clinics.
+     * Finds a page of doctors in a city through their clinics, best rated first.
      */
     @Query("""
-        SELECT DISTINCT d.* FROM doctors d
-        JOIN doctor_clinics dc ON d.id = dc.doctor_id
-        JOIN clinics c ON dc.clinic_id = c.id
-        WHERE c.city = :city AND d.is_verified = true AND d.is_accepting_patients = true
-        ORDER BY d.rating DESC
+        SELECT d.* FROM doctors d
+        WHERE d.is_verified = true AND d.is_accepting_patients = true
+          AND EXISTS (
+              SELECT 1 FROM doctor_clinics dc
+              JOIN clinics c ON dc.clinic_id = c.id
+              WHERE dc.doctor_id = d.id AND c.city = :city)
+        ORDER BY d.rating DESC, d.id
+        LIMIT :limit OFFSET :offset
         """)
-    Flux<Doctor> findByCity(String city);
+    Flux<Doctor> findByCity(String city, int limit, long offset);
+    
+    /**
+     * Counts the doctors {@link #findByCity} pages through.
+     */
+    @Query("""
+        SELECT COUNT(*) FROM doctors d
+        WHERE d.is_verified = true AND d.is_accepting_patients = true
+          AND EXISTS (
+              SELECT 1 FROM doctor_clinics dc
+              JOIN clinics c ON dc.clinic_id = c.id
+              WHERE dc.doctor_id = d.id AND c.city = :city)
+        """)
+    Mono<Long> countByCity(String city);
+    
+    /**
+     * Finds the next page of doctors ordered by ID, starting after the given ID.
+     */
+    @Query("SELECT * FROM doctors WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Doctor> findPageAfter(UUID afterId, int limit);
 }
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -19,6 +20,11 @@ public interface QualificationRepository extends R2dbcRepository<DoctorQualifica
      */
     Flux<DoctorQualification> findByDoctorIdOrderByYearOfCompletionDesc(UUID doctorId);
     
+    /**
+     * Finds all qualifications for a set of doctors.
+     */
+    Flux<DoctorQualification> findByDoctorIdInOrderByYearOfCompletionDesc(Collection<UUID> doctorIds);
+    
     /**
      * Deletes all qualifications for a doctor.
      */
@@ -0,0 +1,177 @@
+package com.healthapp.doctor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthapp.doctor.model.dto.DoctorDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache of fully assembled doctor profiles: a per-instance Caffeine near cache
+ * in front of Redis.
+ * <p>
+ * Writes to a doctor evict both levels and publish the doctor ID on a Redis channel, so
+ * every instance drops its near-cache copy as well. Inside a transaction the eviction
+ * runs after commit, so a read in between cannot re-cache the old row. The near-cache TTL
+ * bounds how stale an instance can be if it misses an invalidation message. Redis failures
+ * fall back to the loader.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoctorProfileCache {
+
+    private static final String KEY_PREFIX = "doctors:profile:";
+    private static final String INVALIDATION_CHANNEL = "doctors:profile:invalidations";
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.doctors.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.doctors.cache.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${app.doctors.cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${app.doctors.cache.local-max-entries:10000}")
+    private long localMaxEntries;
+
+    private Cache<UUID, DoctorDto> nearCache;
+    private Disposable invalidationSubscription;
+
+    @PostConstruct
+    void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumSize(localMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        if (enabled) {
+            invalidationSubscription = Flux.defer(() -> redisTemplate.listenToChannel(INVALIDATION_CHANNEL))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                            .maxBackoff(Duration.ofSeconds(30))
+                            .doBeforeRetry(signal -> log.warn(
+                                    "Doctor profile invalidation listener failed, resubscribing", signal.failure())))
+                    .subscribe(message -> nearCache.invalidate(UUID.fromString(message.getMessage().toString())));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    /**
+     * Returns the cached profile, trying the near cache, then Redis, then the loader.
+     */
+    public Mono<DoctorDto> get(UUID doctorId, Supplier<Mono<DoctorDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        DoctorDto local = nearCache.getIfPresent(doctorId);
+        if (local != null) {
+            requestTimer("local").record(Duration.ZERO);
+            return Mono.just(local);
+        }
+
+        String key = KEY_PREFIX + doctorId;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return redisTemplate.opsForValue().get(key)
+                .map(json -> read(json.toString()))
+                .onErrorResume(error -> {
+                    log.warn("Doctor profile cache read failed for {}, falling back to database", doctorId, error);
+                    return Mono.empty();
+                })
+                .doOnNext(dto -> sample.stop(requestTimer("redis")))
+                .switchIfEmpty(Mono.defer(() -> loader.get()
+                        .doOnNext(dto -> sample.stop(requestTimer("miss")))
+                        .flatMap(dto -> redisTemplate.opsForValue()
+                                .set(key, write(dto), Duration.ofMinutes(ttlMinutes))
+                                .onErrorResume(error -> {
+                                    log.warn("Doctor profile cache write failed for {}", doctorId, error);
+                                    return Mono.just(false);
+                                })
+                                .thenReturn(dto))))
+                .doOnNext(dto -> nearCache.put(doctorId, dto));
+    }
+
+    /**
+     * Evicts a doctor's profile from Redis and from the near cache of every instance,
+     * after commit when called inside a transaction.
+     */
+    public Mono<Void> evict(UUID doctorId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        Mono<Void> evict = Mono.fromRunnable(() -> nearCache.invalidate(doctorId))
+                .then(redisTemplate.delete(KEY_PREFIX + doctorId))
+                .then(redisTemplate.convertAndSend(INVALIDATION_CHANNEL, doctorId.toString()))
+                .onErrorResume(error -> {
+                    log.warn("Doctor profile cache eviction failed for {}", doctorId, error);
+                    return Mono.empty();
+                })
+                .then();
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return evict;
+                    }
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return evict;
+                        }
+                    });
+                    return Mono.empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> evict);
+    }
+
+    // Profiles are stored as JSON text written with the application ObjectMapper, which handles java.time
+    private String write(DoctorDto dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize doctor profile " + dto.getId(), e);
+        }
+    }
+
+    private DoctorDto read(String json) {
+        try {
+            return objectMapper.readValue(json, DoctorDto.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to deserialize cached doctor profile", e);
+        }
+    }
+
+    private Timer requestTimer(String result) {
+        return Timer.builder("doctor.profile.cache.requests")
+                .description("Doctor profile reads by the level that answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -19,9 +19,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing doctor profiles and related operations.
@@ -32,13 +37,34 @@ import java.util.UUID;
 public class DoctorService {
     
     private final DoctorRepository doctorRepository;
-    private final SpecializationRepository specializationRepository;
     private final QualificationRepository qualificationRepository;
-    private final LanguageRepository languageRepository;
-    private final ClinicRepository clinicRepository;
     private final DoctorMapper doctorMapper;
     private final DoctorEventPublisher eventPublisher;
     private final R2dbcEntityTemplate entityTemplate;
+    private final DoctorProfileCache profileCache;
+    private final ProfileViewCounter profileViewCounter;
+    
+    // Relations for a page of doctors, one query each; rows carry doctor_id so they can be grouped back
+    private static final String SPECIALIZATIONS_BY_DOCTORS_SQL = """
+        SELECT s.*, ds.doctor_id, ds.is_primary FROM specializations s
+        JOIN doctor_specializations ds ON s.id = ds.specialization_id
+        WHERE ds.doctor_id = ANY(:doctorIds)
+        ORDER BY ds.is_primary DESC, s.display_order ASC
+        """;
+    
+    private static final String LANGUAGES_BY_DOCTORS_SQL = """
+        SELECT l.*, dl.doctor_id FROM languages l
+        JOIN doctor_languages dl ON l.id = dl.language_id
+        WHERE dl.doctor_id = ANY(:doctorIds)
+        ORDER BY l.name ASC
+        """;
+    
+    private static final String CLINICS_BY_DOCTORS_SQL = """
+        SELECT c.*, dc.doctor_id, dc.is_primary, dc.consultation_fee as clinic_fee FROM clinics c
+        JOIN doctor_clinics dc ON c.id = dc.clinic_id
+        WHERE dc.doctor_id = ANY(:doctorIds) AND dc.is_active = true
+        ORDER BY dc.is_primary DESC
+        """;
     
     /**
      * Creates a new doctor profile.
@@ -88,13 +114,13 @@ public class DoctorService {
     }
     
     /**
-     * Gets a doctor by ID with all related data.
+     * Gets a doctor by ID with all related data, served from the profile cache.
      */
     public Mono<DoctorDto> getDoctorById(UUID doctorId) {
-        return doctorRepository.findById(doctorId)
+        return profileCache.get(doctorId, () -> doctorRepository.findById(doctorId)
+                        .flatMap(this::enrichDoctorDto))
                 .switchIfEmpty(Mono.error(new NotFoundException("Doctor not found")))
-                .flatMap(this::enrichDoctorDto)
-                .doOnSuccess(doctor -> incrementProfileViews(doctorId).subscribe());
+                .doOnSuccess(doctor -> profileViewCounter.record(doctorId));
     }
     
     /**
@@ -119,6 +145,7 @@ public class DoctorService {
                 .flatMap(doctorRepository::save)
                 .flatMap(doctor -> 
                     eventPublisher.publishDoctorUpdated(doctor)
+                            .then(profileCache.evict(doctor.getId()))
                             .then(enrichDoctorDto(doctor))
                 )
                 .doOnSuccess(dto -> log.info("Doctor profile updated: {}", dto.getId()));
@@ -129,37 +156,49 @@ public class DoctorService {
      */
     public Flux<DoctorDto> getTopDoctors(int limit) {
         return doctorRepository.findTopDoctors(limit)
-                .flatMap(this::enrichDoctorDto);
+                .collectList()
+                .flatMapMany(this::enrichDoctorDtos);
     }
     
     /**
-     * Gets doctors by city.
+     * Gets doctors by city. The page is cut in the database and enriched as a batch.
      */
     public Mono<PageResponse<DoctorDto>> getDoctorsByCity(String city, PageRequest pageRequest) {
-        return doctorRepository.findByCity(city)
-                .flatMap(this::enrichDoctorDto)
+        Mono<List<DoctorDto>> content = doctorRepository
+                .findByCity(city, pageRequest.getSize(), pageRequest.getOffset())
                 .collectList()
-                .map(doctors -> {
-                    int start = pageRequest.getPage() * pageRequest.getSize();
-                    int end = Math.min(start + pageRequest.getSize(), doctors.size());
-                    
-                    List<DoctorDto> pageContent = doctors.subList(
-                            Math.min(start, doctors.size()),
-                            end
-                    );
-                    
+                .flatMap(doctors -> enrichDoctorDtos(doctors).collectList());
+        
+        return Mono.zip(content, doctorRepository.countByCity(city))
+                .map(tuple -> {
+                    long total = tuple.getT2();
                     return PageResponse.<DoctorDto>builder()
-                            .content(pageContent)
+                            .content(tuple.getT1())
                             .page(pageRequest.getPage())
                             .size(pageRequest.getSize())
-                            .totalElements(doctors.size())
-                            .totalPages((int) Math.ceil((double) doctors.size() / pageRequest.getSize()))
+                            .totalElements(total)
+                            .totalPages((int) Math.ceil((double) total / pageRequest.getSize()))
                             .first(pageRequest.getPage() == 0)
-                            .last(end >= doctors.size())
+                            .last((long) pageRequest.getOffset() + pageRequest.getSize() >= total)
                             .build();
                 });
     }
     
+    /**
+     * Streams every doctor ordered by ID, starting after {@code afterId} (or from the
+     * beginning when null). Doctors are read in keyset pages, so a caller that loses the
+     * stream can resume from the last ID it received.
+     */
+    public Flux<DoctorDto> exportDoctors(UUID afterId, int pageSize) {
+        UUID start = afterId != null ? afterId : new UUID(0L, 0L);
+        return doctorRepository.findPageAfter(start, pageSize)
+                .collectList()
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : doctorRepository.findPageAfter(page.get(page.size() - 1).getId(), pageSize).collectList())
+                .concatMap(this::enrichDoctorDtos);
+    }
+    
     /**
      * Toggles doctor accepting patients status.
      */
@@ -173,6 +212,7 @@ public class DoctorService {
                 })
                 .flatMap(doctor -> 
                     eventPublisher.publishDoctorAvailabilityChanged(doctor)
+                            .then(profileCache.evict(doctor.getId()))
                             .then(enrichDoctorDto(doctor))
                 );
     }
@@ -192,6 +232,7 @@ public class DoctorService {
                 })
                 .flatMap(doctor -> 
                     eventPublisher.publishDoctorVerified(doctor)
+                            .then(profileCache.evict(doctor.getId()))
                             .then(enrichDoctorDto(doctor))
                 )
                 .doOnSuccess(dto -> log.info("Doctor verified: {}", dto.getId()));
@@ -200,32 +241,58 @@ public class DoctorService {
     // Helper methods
     
     private Mono<DoctorDto> enrichDoctorDto(Doctor doctor) {
-        DoctorDto dto = doctorMapper.toDto(doctor);
+        return enrichDoctorDtos(List.of(doctor)).next();
+    }
+    
+    /**
+     * Enriches a page of doctors with four queries in total, one per relation, instead of
+     * four per doctor. Output keeps the order of {@code doctors}.
+     */
+    private Flux<DoctorDto> enrichDoctorDtos(List<Doctor> doctors) {
+        if (doctors.isEmpty()) {
+            return Flux.empty();
+        }
+        List<UUID> doctorIds = doctors.stream().map(Doctor::getId).toList();
+        UUID[] doctorIdArray = doctorIds.toArray(UUID[]::new);
         
-        Mono<List<SpecializationDto>> specs = specializationRepository.findByDoctorId(doctor.getId())
-                .map(doctorMapper::toDto)
-                .collectList();
+        Mono<Map<UUID, List<SpecializationDto>>> specs = findByDoctorIds(
+                SPECIALIZATIONS_BY_DOCTORS_SQL, doctorIdArray, Specialization.class, doctorMapper::toDto);
         
-        Mono<List<QualificationDto>> quals = qualificationRepository.findByDoctorIdOrderByYearOfCompletionDesc(doctor.getId())
-                .map(doctorMapper::toDto)
-                .collectList();
+        Mono<Map<UUID, List<QualificationDto>>> quals = qualificationRepository
+                .findByDoctorIdInOrderByYearOfCompletionDesc(doctorIds)
+                .collect(Collectors.groupingBy(DoctorQualification::getDoctorId,
+                        Collectors.mapping(doctorMapper::toDto, Collectors.toList())));
         
-        Mono<List<LanguageDto>> langs = languageRepository.findByDoctorId(doctor.getId())
-                .map(doctorMapper::toDto)
-                .collectList();
+        Mono<Map<UUID, List<LanguageDto>>> langs = findByDoctorIds(
+                LANGUAGES_BY_DOCTORS_SQL, doctorIdArray, Language.class, doctorMapper::toDto);
         
-        Mono<List<ClinicDto>> clinics = clinicRepository.findByDoctorId(doctor.getId())
-                .map(doctorMapper::toDto)
-                .collectList();
+        Mono<Map<UUID, List<ClinicDto>>> clinics = findByDoctorIds(
+                CLINICS_BY_DOCTORS_SQL, doctorIdArray, Clinic.class, doctorMapper::toDto);
         
         return Mono.zip(specs, quals, langs, clinics)
-                .map(tuple -> {
-                    dto.setSpecializations(tuple.getT1());
-                    dto.setQualifications(tuple.getT2());
-                    dto.setLanguages(tuple.getT3());
-                    dto.setClinics(tuple.getT4());
-                    return dto;
-                });
+                .flatMapIterable(tuple -> doctors.stream()
+                        .map(doctor -> {
+                            DoctorDto dto = doctorMapper.toDto(doctor);
+                            dto.setSpecializations(tuple.getT1().getOrDefault(doctor.getId(), List.of()));
+                            dto.setQualifications(tuple.getT2().getOrDefault(doctor.getId(), List.of()));
+                            dto.setLanguages(tuple.getT3().getOrDefault(doctor.getId(), List.of()));
+                            dto.setClinics(tuple.getT4().getOrDefault(doctor.getId(), List.of()));
+                            return dto;
+                        })
+                        .toList());
+    }
+    
+    private <T, D> Mono<Map<UUID, List<D>>> findByDoctorIds(String sql, UUID[] doctorIds,
+                                                            Class<T> type, Function<T, D> toDto) {
+        return entityTemplate.getDatabaseClient()
+                .sql(sql)
+                .bind("doctorIds", doctorIds)
+                .map((row, metadata) -> Tuples.of(
+                        row.get("doctor_id", UUID.class),
+                        toDto.apply(entityTemplate.getConverter().read(type, row, metadata))))
+                .all()
+                .collect(Collectors.groupingBy(Tuple2::getT1,
+                        Collectors.mapping(Tuple2::getT2, Collectors.toList())));
     }
     
     private Mono<Void> linkSpecializations(UUID doctorId, List<UUID> specializationIds, UUID primaryId) {
@@ -263,13 +330,4 @@ public class DoctorService {
                 )
                 .then();
     }
-    
-    private Mono<Void> incrementProfileViews(UUID doctorId) {
-        return entityTemplate.getDatabaseClient()
-                .sql("UPDATE doctors SET profile_views = profile_views + 1 WHERE id = :id")
-                .bind("id", doctorId)
-                .fetch()
-                .rowsUpdated()
-                .then();
-    }
 }
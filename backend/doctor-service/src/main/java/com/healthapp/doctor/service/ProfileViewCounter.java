@@ -0,0 +1,174 @@
+package com.healthapp.doctor.service;
+
+import com.healthapp.doctor.event.DoctorEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers profile views in memory and writes them to {@code doctors.profile_views} in
+ * periodic batches, so a profile read never writes the doctor row.
+ * <p>
+ * Each flush applies all buffered views with one UPDATE per batch of doctors and then
+ * publishes the per-doctor deltas for the search index. Views that fail to flush are put
+ * back in the buffer; views still buffered when an instance dies are lost, which is
+ * acceptable for a popularity signal. A doctor's counter stays in the buffer once
+ * created, so the buffer holds at most one entry per viewed doctor.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProfileViewCounter {
+
+    // UPDATE ... FROM unnest locks rows in join order, so the batch is locked in ID order first;
+    // concurrent flushes from several instances then cannot deadlock
+    private static final String LOCK_DOCTORS_SQL = """
+        SELECT id FROM doctors
+        WHERE id = ANY(:ids::uuid[])
+        ORDER BY id
+        FOR UPDATE
+        """;
+
+    private static final String APPLY_VIEWS_SQL = """
+        UPDATE doctors d SET profile_views = COALESCE(d.profile_views, 0) + v.views
+        FROM unnest(:ids::uuid[], :views::bigint[]) AS v(id, views)
+        WHERE d.id = v.id
+        """;
+
+    private final R2dbcEntityTemplate entityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final DoctorEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.doctors.views.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private final ConcurrentHashMap<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Counter recordedCounter;
+    private Counter flushedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        recordedCounter = meterRegistry.counter("doctor.profile.views.recorded");
+        flushedCounter = meterRegistry.counter("doctor.profile.views.flushed");
+        meterRegistry.gauge("doctor.profile.views.pending.doctors", pending,
+                map -> map.values().stream().filter(adder -> adder.sum() > 0).count());
+    }
+
+    /**
+     * Counts one profile view. Never blocks and never touches the database.
+     */
+    public void record(UUID doctorId) {
+        pending.computeIfAbsent(doctorId, id -> new LongAdder()).increment();
+        recordedCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.doctors.views.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        flushPending()
+                .doFinally(signal -> flushing.set(false))
+                .subscribe(
+                        doctors -> log.debug("Flushed profile views for {} doctors", doctors),
+                        error -> log.error("Error flushing profile views", error)
+                );
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (!pending.isEmpty()) {
+            flushPending()
+                    .onErrorResume(error -> {
+                        log.warn("Dropping {} doctors' buffered profile views on shutdown", pending.size(), error);
+                        return Mono.empty();
+                    })
+                    .block(Duration.ofSeconds(10));
+        }
+    }
+
+    /**
+     * Drains the buffer and writes it.
+     *
+     * @return number of doctors updated
+     */
+    Mono<Integer> flushPending() {
+        Map<UUID, Long> views = drain();
+        if (views.isEmpty()) {
+            return Mono.just(0);
+        }
+        List<Map.Entry<UUID, Long>> entries = new ArrayList<>(views.entrySet());
+        return Flux.fromIterable(entries)
+                .buffer(flushBatchSize)
+                .concatMap(batch -> lockAndApply(batch)
+                        .onErrorResume(error -> {
+                            log.error("Failed to flush profile views for {} doctors, keeping them buffered",
+                                    batch.size(), error);
+                            batch.forEach(entry -> restore(entry.getKey(), entry.getValue()));
+                            return Mono.empty();
+                        })
+                        .flatMapMany(updated -> Flux.fromIterable(batch)))
+                .concatMap(entry -> eventPublisher.publishDoctorCountersIncremented(entry.getKey(), entry.getValue())
+                        .onErrorResume(error -> Mono.empty())
+                        .thenReturn(entry))
+                .doOnNext(entry -> flushedCounter.increment(entry.getValue()))
+                .count()
+                .map(Long::intValue);
+    }
+
+    private Mono<Long> lockAndApply(List<Map.Entry<UUID, Long>> batch) {
+        UUID[] ids = batch.stream().map(Map.Entry::getKey).toArray(UUID[]::new);
+        DatabaseClient databaseClient = entityTemplate.getDatabaseClient();
+        return databaseClient.sql(LOCK_DOCTORS_SQL)
+                .bind("ids", ids)
+                .fetch()
+                .all()
+                .then(databaseClient.sql(APPLY_VIEWS_SQL)
+                        .bind("ids", ids)
+                        .bind("views", batch.stream().map(Map.Entry::getValue).toArray(Long[]::new))
+                        .fetch()
+                        .rowsUpdated())
+                .as(transactionalOperator::transactional);
+    }
+
+    private Map<UUID, Long> drain() {
+        Map<UUID, Long> views = new HashMap<>();
+        // Adders stay in the map and only what was summed is subtracted, so a concurrent record() is never lost
+        pending.forEach((doctorId, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                adder.add(-count);
+                views.put(doctorId, count);
+            }
+        });
+        return views;
+    }
+
+    private void restore(UUID doctorId, long views) {
+        pending.computeIfAbsent(doctorId, id -> new LongAdder()).add(views);
+    }
+}
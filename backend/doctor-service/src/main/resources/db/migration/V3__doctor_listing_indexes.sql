@@ -0,0 +1,8 @@
+-- V3__doctor_listing_indexes.sql
+
+-- City listings go from clinics in the city to their doctors
+CREATE INDEX idx_doctor_clinics_clinic ON doctor_clinics(clinic_id);
+
+-- Listable doctors in page order, so a city page stops after LIMIT + OFFSET rows
+CREATE INDEX idx_doctors_listable_rating ON doctors(rating DESC, id)
+    WHERE is_verified = TRUE AND is_accepting_patients = TRUE;
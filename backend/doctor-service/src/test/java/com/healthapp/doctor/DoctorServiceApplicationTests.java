@@ -7,6 +7,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.kafka.sender.KafkaSender;
 
 @SpringBootTest(
@@ -45,6 +46,9 @@ class DoctorServiceApplicationTests {
     @MockBean
     private R2dbcEntityTemplate r2dbcEntityTemplate;
 
+    @MockBean
+    private TransactionalOperator transactionalOperator;
+
     @MockBean
     private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
 
@@ -0,0 +1,35 @@
+package com.healthapp.common.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Page response DTO for keyset (cursor) pagination.
+ * <p>
+ * {@code nextCursor} is an opaque token to pass back as {@code cursor} to fetch the
+ * following page; it is {@code null} on the last page.
+ */
+@Value
+@Builder
+public class CursorPage<T> {
+
+    List<T> content;
+    int size;
+    String nextCursor;
+    boolean hasNext;
+
+    public static <T> CursorPage<T> of(List<T> content, int size, String nextCursor) {
+        return CursorPage.<T>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .build();
+    }
+
+    public static <T> CursorPage<T> empty(int size) {
+        return of(List.of(), size, null);
+    }
+}
@@ -17,6 +17,11 @@ public final class KafkaTopics {
      */
     public static final String DOCTOR_EVENTS = "doctor-events";
     
+    /**
+     * Doctor events that could not be applied to the search index.
+     */
+    public static final String DOCTOR_EVENTS_DLT = "doctor-events.DLT";
+    
     /**
      * Appointment-related events (booking, cancellation, completion).
      */
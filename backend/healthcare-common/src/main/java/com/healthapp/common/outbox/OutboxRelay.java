@@ -0,0 +1,278 @@
+package com.healthapp.common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the transactional outbox to Kafka in batches.
+ * <p>
+ * Each batch is leased with {@code FOR UPDATE SKIP LOCKED}, sent through a producer
+ * tuned for batching (linger, batch size, compression) and deleted once the broker
+ * acknowledges it. Events whose send fails stay in the table and are retried after the
+ * lease expires, so delivery is at-least-once and several replicas can relay in parallel.
+ * An event still unsent after {@code outbox.relay.max-attempts} leases is moved to the
+ * dead-letter state ({@code dead_lettered_at} set) and no longer claimed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final String CLAIM_BATCH = """
+        UPDATE outbox_events
+        SET locked_until = NOW() + make_interval(secs => :leaseSeconds),
+            attempts = attempts + 1
+        WHERE id IN (
+            SELECT id FROM outbox_events
+            WHERE dead_lettered_at IS NULL
+            AND (locked_until IS NULL OR locked_until < NOW())
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id, topic, message_key, payload, created_at
+        """;
+
+    private static final String DEAD_LETTER_EXHAUSTED = """
+        UPDATE outbox_events
+        SET dead_lettered_at = NOW(), locked_until = NULL
+        WHERE id IN (
+            SELECT id FROM outbox_events
+            WHERE dead_lettered_at IS NULL
+            AND attempts >= :maxAttempts
+            AND (locked_until IS NULL OR locked_until < NOW())
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id, topic
+        """;
+
+    private static final String DELETE_PUBLISHED = """
+        DELETE FROM outbox_events WHERE id = ANY(:ids)
+        """;
+
+    private final R2dbcEntityTemplate template;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${spring.application.name:healthcare}")
+    private String applicationName;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.lease-seconds:30}")
+    private int leaseSeconds;
+
+    @Value("${outbox.relay.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${outbox.relay.producer-batch-bytes:131072}")
+    private int producerBatchBytes;
+
+    @Value("${outbox.relay.compression:lz4}")
+    private String compression;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private KafkaSender<String, String> sender;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Counter deadLetteredCounter;
+    private Timer lagTimer;
+    private Timer batchTimer;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    void start() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-outbox-relay");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchBytes);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+
+        sender = KafkaSender.create(SenderOptions.<String, String>create(props)
+                .maxInFlight(batchSize)
+                .stopOnError(false));
+
+        publishedCounter = meterRegistry.counter("outbox.relay.published");
+        failedCounter = meterRegistry.counter("outbox.relay.failed");
+        deadLetteredCounter = meterRegistry.counter("outbox.relay.dead_lettered");
+        lagTimer = Timer.builder("outbox.relay.lag")
+                .description("Time from outbox insert to broker acknowledgement")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("outbox.relay.batch.duration")
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-ms:200}")
+    public void relay() {
+        // Skip if the previous run on this instance is still draining
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        deadLetterExhausted()
+                .thenMany(Flux.range(0, maxBatchesPerRun)
+                        .concatMap(i -> relayBatch(), 1)
+                        .takeUntil(claimed -> claimed < batchSize))
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        null,
+                        error -> log.error("Error relaying outbox events", error)
+                );
+    }
+
+    /**
+     * Claims, sends and deletes one batch.
+     *
+     * @return the number of events claimed
+     */
+    private Mono<Integer> relayBatch() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return claimBatch()
+                    .flatMap(batch -> {
+                        if (batch.isEmpty()) {
+                            return Mono.just(0);
+                        }
+                        batchSizeSummary.record(batch.size());
+                        return send(batch)
+                                .flatMap(this::deletePublished)
+                                .doOnSuccess(v -> sample.stop(batchTimer))
+                                .thenReturn(batch.size());
+                    });
+        });
+    }
+
+    /**
+     * Moves events whose lease has run out {@code maxAttempts} times to the dead-letter state.
+     */
+    private Mono<Void> deadLetterExhausted() {
+        return template.getDatabaseClient()
+                .sql(DEAD_LETTER_EXHAUSTED)
+                .bind("maxAttempts", maxAttempts)
+                .map(row -> {
+                    Long id = row.get("id", Long.class);
+                    log.error("Outbox event {} for topic {} dead-lettered after {} attempts",
+                            id, row.get("topic", String.class), maxAttempts);
+                    return id;
+                })
+                .all()
+                .count()
+                .doOnNext(deadLetteredCounter::increment)
+                .then();
+    }
+
+    private Mono<List<OutboxRecord>> claimBatch() {
+        return template.getDatabaseClient()
+                .sql(CLAIM_BATCH)
+                .bind("leaseSeconds", leaseSeconds)
+                .bind("limit", batchSize)
+                .map(OutboxRelay::toRecord)
+                .all()
+                .collectList();
+    }
+
+    private Mono<List<Long>> send(List<OutboxRecord> batch) {
+        Flux<SenderRecord<String, String, OutboxRecord>> records = Flux.fromIterable(batch)
+                .map(record -> SenderRecord.create(
+                        new ProducerRecord<>(record.topic(), record.key(), record.payload()), record));
+
+        return sender.send(records)
+                .filter(result -> {
+                    if (result.exception() != null) {
+                        failedCounter.increment();
+                        log.warn("Failed to relay outbox event {} to topic {}",
+                                result.correlationMetadata().id(), result.correlationMetadata().topic(),
+                                result.exception());
+                        return false;
+                    }
+                    return true;
+                })
+                .map(result -> {
+                    OutboxRecord record = result.correlationMetadata();
+                    publishedCounter.increment();
+                    if (record.createdAt() != null) {
+                        lagTimer.record(Duration.between(record.createdAt(), Instant.now()));
+                    }
+                    return record.id();
+                })
+                .collectList();
+    }
+
+    private Mono<Void> deletePublished(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return template.getDatabaseClient()
+                .sql(DELETE_PUBLISHED)
+                .bind("ids", ids.toArray(new Long[0]))
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private static OutboxRecord toRecord(Readable row) {
+        OffsetDateTime createdAt = row.get("created_at", OffsetDateTime.class);
+        return new OutboxRecord(
+                row.get("id", Long.class),
+                row.get("topic", String.class),
+                row.get("message_key", String.class),
+                row.get("payload", String.class),
+                createdAt != null ? createdAt.toInstant() : null);
+    }
+
+    private record OutboxRecord(Long id, String topic, String key, String payload, Instant createdAt) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.healthapp.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes events to the transactional outbox.
+ * <p>
+ * The insert runs on the caller's R2DBC connection, so when called inside a
+ * {@code @Transactional} chain the event is committed or rolled back together with
+ * the business change. {@link OutboxRelay} delivers committed events to Kafka.
+ * Requires an {@code outbox_events} table in the service database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxWriter {
+
+    private static final String INSERT_EVENT = """
+        INSERT INTO outbox_events (topic, message_key, payload, created_at)
+        VALUES (:topic, :key, :payload, NOW())
+        """;
+
+    private final R2dbcEntityTemplate template;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stages an event for publication to the given topic.
+     */
+    public Mono<Void> write(String topic, String key, Object event) {
+        return Mono.fromCallable(() -> serialize(event))
+                .flatMap(payload -> {
+                    DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                            .sql(INSERT_EVENT)
+                            .bind("topic", topic)
+                            .bind("payload", payload);
+                    spec = key != null ? spec.bind("key", key) : spec.bindNull("key", String.class);
+                    return spec.fetch().rowsUpdated();
+                })
+                .doOnSuccess(rows -> log.debug("Staged outbox event for topic {} with key {}", topic, key))
+                .then();
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox event " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
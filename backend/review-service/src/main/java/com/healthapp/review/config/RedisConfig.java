@@ -1,5 +1,6 @@
 package com.healthapp.review.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,11 +16,12 @@ public class RedisConfig {
 
     @Bean
     public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
-            ReactiveRedisConnectionFactory connectionFactory) {
+            ReactiveRedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
         
         StringRedisSerializer keySerializer = new StringRedisSerializer();
+        // Application ObjectMapper, so java.time values in cached DTOs are handled
         Jackson2JsonRedisSerializer<Object> valueSerializer = 
-            new Jackson2JsonRedisSerializer<>(Object.class);
+            new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
 
         RedisSerializationContext<String, Object> context = 
             RedisSerializationContext.<String, Object>newSerializationContext(keySerializer)
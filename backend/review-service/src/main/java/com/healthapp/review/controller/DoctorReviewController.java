@@ -1,6 +1,7 @@
 package com.healthapp.review.controller;
 
 import org.springframework.context.annotation.Profile;
+import com.healthapp.common.dto.CursorPage;
 import com.healthapp.review.dto.*;
 import com.healthapp.review.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -44,6 +45,15 @@ public class DoctorReviewController {
         return reviewService.getDoctorReviews(doctorId, filter, page, size);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get a keyset page of a doctor's approved reviews, newest first")
+    public Mono<CursorPage<ReviewResponse>> getDoctorReviewPage(
+            @PathVariable UUID doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return reviewService.getDoctorReviewPage(doctorId, cursor, size);
+    }
+
     @GetMapping("/rating")
     @Operation(summary = "Get doctor's rating aggregate")
     public Mono<DoctorRatingResponse> getDoctorRating(@PathVariable UUID doctorId) {
@@ -80,6 +80,34 @@ public class DoctorRatingAggregate {
     @Column("recommendation_rate")
     private BigDecimal recommendationRate;
 
+    // Running sums the averages are derived from
+    @Column("rating_sum")
+    private Long ratingSum;
+
+    @Column("wait_time_sum")
+    private Long waitTimeSum;
+
+    @Column("wait_time_count")
+    private Integer waitTimeCount;
+
+    @Column("bedside_manner_sum")
+    private Long bedsideMannerSum;
+
+    @Column("bedside_manner_count")
+    private Integer bedsideMannerCount;
+
+    @Column("explanation_sum")
+    private Long explanationSum;
+
+    @Column("explanation_count")
+    private Integer explanationCount;
+
+    @Column("video_rating_sum")
+    private Long videoRatingSum;
+
+    @Column("in_person_rating_sum")
+    private Long inPersonRatingSum;
+
     @LastModifiedDate
     @Column("last_updated")
     private Instant lastUpdated;
@@ -97,6 +125,15 @@ public class DoctorRatingAggregate {
                 .videoConsultationCount(0)
                 .inPersonCount(0)
                 .recommendationRate(BigDecimal.ZERO)
+                .ratingSum(0L)
+                .waitTimeSum(0L)
+                .waitTimeCount(0)
+                .bedsideMannerSum(0L)
+                .bedsideMannerCount(0)
+                .explanationSum(0L)
+                .explanationCount(0)
+                .videoRatingSum(0L)
+                .inPersonRatingSum(0L)
                 .lastUpdated(Instant.now())
                 .build();
     }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Profile("!test")
@@ -55,6 +56,19 @@ public interface ReviewRepository extends R2dbcRepository<DoctorReview, UUID> {
             int offset
     );
 
+    /**
+     * Keyset page of a doctor's approved reviews, newest first, strictly after the given position.
+     */
+    @Query("""
+        SELECT * FROM doctor_reviews
+        WHERE doctor_id = :doctorId
+        AND status = 'APPROVED'
+        AND (created_at, id) < (:createdAt, :id)
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """)
+    Flux<DoctorReview> findApprovedFeedPage(UUID doctorId, Instant createdAt, UUID id, int limit);
+
     @Query("SELECT COUNT(*) FROM doctor_reviews WHERE doctor_id = :doctorId AND status = 'APPROVED' AND overall_rating = :rating")
     Mono<Integer> countByDoctorIdAndRating(UUID doctorId, int rating);
 
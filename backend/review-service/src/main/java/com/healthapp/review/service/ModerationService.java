@@ -30,6 +30,7 @@ public class ModerationService {
     private final ReviewRepository reviewRepository;
     private final ReportRepository reportRepository;
     private final RatingAggregationService ratingAggregationService;
+    private final ReviewCache reviewCache;
     private final ReviewEventPublisher eventPublisher;
 
     /**
@@ -61,6 +62,7 @@ public class ModerationService {
     private Mono<DoctorReview> incrementReportCount(UUID reviewId) {
         return reviewRepository.findById(reviewId)
                 .flatMap(review -> {
+                    ReviewStatus previousStatus = review.getStatus();
                     review.setReportCount(review.getReportCount() + 1);
                     
                     // Auto-flag if too many reports
@@ -68,7 +70,13 @@ public class ModerationService {
                         review.setStatus(ReviewStatus.FLAGGED);
                     }
                     
-                    return reviewRepository.save(review);
+                    return reviewRepository.save(review)
+                            .flatMap(savedReview -> ratingAggregationService
+                                    .applyStatusChange(savedReview, previousStatus)
+                                    .then(savedReview.getStatus() != previousStatus
+                                            ? reviewCache.evictDoctor(savedReview.getDoctorId())
+                                            : Mono.empty())
+                                    .thenReturn(savedReview));
                 });
     }
 
@@ -110,17 +118,11 @@ public class ModerationService {
                     review.setModeratedAt(Instant.now());
                     
                     return reviewRepository.save(review)
-                            .flatMap(savedReview -> {
-                                // Update aggregates if status changed to/from APPROVED
-                                if (previousStatus != request.getStatus() &&
-                                        (previousStatus == ReviewStatus.APPROVED || 
-                                         request.getStatus() == ReviewStatus.APPROVED)) {
-                                    return ratingAggregationService
-                                            .updateDoctorRatings(savedReview.getDoctorId())
-                                            .thenReturn(savedReview);
-                                }
-                                return Mono.just(savedReview);
-                            });
+                            // Update aggregates if status changed to/from APPROVED
+                            .flatMap(savedReview -> ratingAggregationService
+                                    .applyStatusChange(savedReview, previousStatus)
+                                    .then(reviewCache.evictDoctor(savedReview.getDoctorId()))
+                                    .thenReturn(savedReview));
                 })
                 .map(this::toResponse)
                 .doOnSuccess(response -> {
@@ -1,149 +1,286 @@
 package com.healthapp.review.service;
 
 import org.springframework.context.annotation.Profile;
-import com.healthapp.review.model.entity.DoctorRatingAggregate;
+import com.healthapp.review.model.entity.DoctorReview;
 import com.healthapp.review.model.enums.ConsultationType;
 import com.healthapp.review.model.enums.ReviewStatus;
-import com.healthapp.review.repository.RatingAggregateRepository;
-import com.healthapp.review.repository.ReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Maintains {@code doctor_rating_aggregates} incrementally.
+ * <p>
+ * The aggregate stores per-star counts and running sums next to the averages. When a
+ * review enters or leaves the APPROVED set, its contribution is added or subtracted in a
+ * single UPDATE that also re-derives the averages, so the cost does not grow with the
+ * number of reviews. The row lock taken by the UPDATE serializes concurrent deltas for
+ * the same doctor. {@link #reconcileDoctor(UUID)} recomputes one aggregate from the
+ * reviews to correct any drift, holding the same row lock so no delta is lost meanwhile.
+ */
 @Profile("!test")
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RatingAggregationService {
 
-    private final ReviewRepository reviewRepository;
-    private final RatingAggregateRepository aggregateRepository;
+    private static final String ENSURE_AGGREGATE_SQL = """
+        INSERT INTO doctor_rating_aggregates (doctor_id) VALUES (:doctorId)
+        ON CONFLICT (doctor_id) DO NOTHING
+        """;
+
+    // Right-hand column references see the pre-update values, so derived columns add the delta again
+    private static final String APPLY_DELTA_SQL = """
+        UPDATE doctor_rating_aggregates SET
+            total_reviews = total_reviews + :reviews,
+            rating_sum = rating_sum + :ratingSum,
+            five_star_count = five_star_count + :five,
+            four_star_count = four_star_count + :four,
+            three_star_count = three_star_count + :three,
+            two_star_count = two_star_count + :two,
+            one_star_count = one_star_count + :one,
+            wait_time_sum = wait_time_sum + :waitSum,
+            wait_time_count = wait_time_count + :waitCount,
+            bedside_manner_sum = bedside_manner_sum + :bedsideSum,
+            bedside_manner_count = bedside_manner_count + :bedsideCount,
+            explanation_sum = explanation_sum + :explanationSum,
+            explanation_count = explanation_count + :explanationCount,
+            video_consultation_count = video_consultation_count + :videoCount,
+            video_rating_sum = video_rating_sum + :videoSum,
+            in_person_count = in_person_count + :inPersonCount,
+            in_person_rating_sum = in_person_rating_sum + :inPersonSum,
+            average_rating = COALESCE(ROUND((rating_sum + :ratingSum)::numeric
+                    / NULLIF(total_reviews + :reviews, 0), 2), 0),
+            recommendation_rate = COALESCE(ROUND((five_star_count + :five + four_star_count + :four) * 100.0
+                    / NULLIF(total_reviews + :reviews, 0), 2), 0),
+            avg_wait_time_rating = ROUND((wait_time_sum + :waitSum)::numeric
+                    / NULLIF(wait_time_count + :waitCount, 0), 2),
+            avg_bedside_manner_rating = ROUND((bedside_manner_sum + :bedsideSum)::numeric
+                    / NULLIF(bedside_manner_count + :bedsideCount, 0), 2),
+            avg_explanation_rating = ROUND((explanation_sum + :explanationSum)::numeric
+                    / NULLIF(explanation_count + :explanationCount, 0), 2),
+            video_consultation_rating = ROUND((video_rating_sum + :videoSum)::numeric
+                    / NULLIF(video_consultation_count + :videoCount, 0), 2),
+            in_person_rating = ROUND((in_person_rating_sum + :inPersonSum)::numeric
+                    / NULLIF(in_person_count + :inPersonCount, 0), 2),
+            last_updated = NOW()
+        WHERE doctor_id = :doctorId
+        """;
+
+    private static final String LOCK_AGGREGATE_SQL = """
+        SELECT doctor_id FROM doctor_rating_aggregates WHERE doctor_id = :doctorId FOR UPDATE
+        """;
+
+    private static final String DOCTOR_IDS_SQL = """
+        SELECT doctor_id FROM doctor_rating_aggregates UNION SELECT doctor_id FROM doctor_reviews
+        """;
+
+    // Only a row whose counts or sums differ from the reviews is written, so the row count is the drift
+    private static final String RECONCILE_SQL = """
+        WITH stats AS (
+            SELECT d.doctor_id,
+                   COUNT(r.id) AS total_reviews,
+                   COALESCE(SUM(r.overall_rating), 0) AS rating_sum,
+                   COUNT(*) FILTER (WHERE r.overall_rating = 5) AS five_star_count,
+                   COUNT(*) FILTER (WHERE r.overall_rating = 4) AS four_star_count,
+                   COUNT(*) FILTER (WHERE r.overall_rating = 3) AS three_star_count,
+                   COUNT(*) FILTER (WHERE r.overall_rating = 2) AS two_star_count,
+                   COUNT(*) FILTER (WHERE r.overall_rating = 1) AS one_star_count,
+                   COALESCE(SUM(r.wait_time_rating), 0) AS wait_time_sum,
+                   COUNT(r.wait_time_rating) AS wait_time_count,
+                   COALESCE(SUM(r.bedside_manner_rating), 0) AS bedside_manner_sum,
+                   COUNT(r.bedside_manner_rating) AS bedside_manner_count,
+                   COALESCE(SUM(r.explanation_rating), 0) AS explanation_sum,
+                   COUNT(r.explanation_rating) AS explanation_count,
+                   COUNT(*) FILTER (WHERE r.consultation_type = 'VIDEO') AS video_consultation_count,
+                   COALESCE(SUM(r.overall_rating) FILTER (WHERE r.consultation_type = 'VIDEO'), 0) AS video_rating_sum,
+                   COUNT(*) FILTER (WHERE r.consultation_type = 'IN_PERSON') AS in_person_count,
+                   COALESCE(SUM(r.overall_rating) FILTER (WHERE r.consultation_type = 'IN_PERSON'), 0) AS in_person_rating_sum
+            FROM (SELECT CAST(:doctorId AS uuid) AS doctor_id) d
+            LEFT JOIN doctor_reviews r ON r.doctor_id = d.doctor_id AND r.status = 'APPROVED'
+            GROUP BY d.doctor_id
+        )
+        INSERT INTO doctor_rating_aggregates (
+            doctor_id, total_reviews, rating_sum,
+            five_star_count, four_star_count, three_star_count, two_star_count, one_star_count,
+            wait_time_sum, wait_time_count, bedside_manner_sum, bedside_manner_count,
+            explanation_sum, explanation_count,
+            video_consultation_count, video_rating_sum, in_person_count, in_person_rating_sum,
+            average_rating, recommendation_rate,
+            avg_wait_time_rating, avg_bedside_manner_rating, avg_explanation_rating,
+            video_consultation_rating, in_person_rating, last_updated)
+        SELECT doctor_id, total_reviews, rating_sum,
+               five_star_count, four_star_count, three_star_count, two_star_count, one_star_count,
+               wait_time_sum, wait_time_count, bedside_manner_sum, bedside_manner_count,
+               explanation_sum, explanation_count,
+               video_consultation_count, video_rating_sum, in_person_count, in_person_rating_sum,
+               COALESCE(ROUND(rating_sum::numeric / NULLIF(total_reviews, 0), 2), 0),
+               COALESCE(ROUND((five_star_count + four_star_count) * 100.0 / NULLIF(total_reviews, 0), 2), 0),
+               ROUND(wait_time_sum::numeric / NULLIF(wait_time_count, 0), 2),
+               ROUND(bedside_manner_sum::numeric / NULLIF(bedside_manner_count, 0), 2),
+               ROUND(explanation_sum::numeric / NULLIF(explanation_count, 0), 2),
+               ROUND(video_rating_sum::numeric / NULLIF(video_consultation_count, 0), 2),
+               ROUND(in_person_rating_sum::numeric / NULLIF(in_person_count, 0), 2),
+               NOW()
+        FROM stats
+        ON CONFLICT (doctor_id) DO UPDATE SET
+            total_reviews = EXCLUDED.total_reviews,
+            rating_sum = EXCLUDED.rating_sum,
+            five_star_count = EXCLUDED.five_star_count,
+            four_star_count = EXCLUDED.four_star_count,
+            three_star_count = EXCLUDED.three_star_count,
+            two_star_count = EXCLUDED.two_star_count,
+            one_star_count = EXCLUDED.one_star_count,
+            wait_time_sum = EXCLUDED.wait_time_sum,
+            wait_time_count = EXCLUDED.wait_time_count,
+            bedside_manner_sum = EXCLUDED.bedside_manner_sum,
+            bedside_manner_count = EXCLUDED.bedside_manner_count,
+            explanation_sum = EXCLUDED.explanation_sum,
+            explanation_count = EXCLUDED.explanation_count,
+            video_consultation_count = EXCLUDED.video_consultation_count,
+            video_rating_sum = EXCLUDED.video_rating_sum,
+            in_person_count = EXCLUDED.in_person_count,
+            in_person_rating_sum = EXCLUDED.in_person_rating_sum,
+            average_rating = EXCLUDED.average_rating,
+            recommendation_rate = EXCLUDED.recommendation_rate,
+            avg_wait_time_rating = EXCLUDED.avg_wait_time_rating,
+            avg_bedside_manner_rating = EXCLUDED.avg_bedside_manner_rating,
+            avg_explanation_rating = EXCLUDED.avg_explanation_rating,
+            video_consultation_rating = EXCLUDED.video_consultation_rating,
+            in_person_rating = EXCLUDED.in_person_rating,
+            last_updated = EXCLUDED.last_updated
+        WHERE (doctor_rating_aggregates.total_reviews, doctor_rating_aggregates.rating_sum,
+               doctor_rating_aggregates.five_star_count, doctor_rating_aggregates.four_star_count,
+               doctor_rating_aggregates.three_star_count, doctor_rating_aggregates.two_star_count,
+               doctor_rating_aggregates.one_star_count,
+               doctor_rating_aggregates.wait_time_sum, doctor_rating_aggregates.wait_time_count,
+               doctor_rating_aggregates.bedside_manner_sum, doctor_rating_aggregates.bedside_manner_count,
+               doctor_rating_aggregates.explanation_sum, doctor_rating_aggregates.explanation_count,
+               doctor_rating_aggregates.video_consultation_count, doctor_rating_aggregates.video_rating_sum,
+               doctor_rating_aggregates.in_person_count, doctor_rating_aggregates.in_person_rating_sum)
+            IS DISTINCT FROM
+              (EXCLUDED.total_reviews, EXCLUDED.rating_sum,
+               EXCLUDED.five_star_count, EXCLUDED.four_star_count,
+               EXCLUDED.three_star_count, EXCLUDED.two_star_count,
+               EXCLUDED.one_star_count,
+               EXCLUDED.wait_time_sum, EXCLUDED.wait_time_count,
+               EXCLUDED.bedside_manner_sum, EXCLUDED.bedside_manner_count,
+               EXCLUDED.explanation_sum, EXCLUDED.explanation_count,
+               EXCLUDED.video_consultation_count, EXCLUDED.video_rating_sum,
+               EXCLUDED.in_person_count, EXCLUDED.in_person_rating_sum)
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Update doctor rating aggregates after a new review is submitted or status changes
+     * Adds a newly submitted review to its doctor's aggregate if it was approved on submission.
      */
     @Transactional
-    public Mono<DoctorRatingAggregate> updateDoctorRatings(UUID doctorId) {
-        log.info("Updating rating aggregates for doctor {}", doctorId);
-
-        return Mono.zip(
-                reviewRepository.getAverageRatingByDoctorId(doctorId).defaultIfEmpty(0.0),
-                reviewRepository.countByDoctorIdAndStatusApproved(doctorId).defaultIfEmpty(0L),
-                reviewRepository.countByDoctorIdAndRating(doctorId, 5).defaultIfEmpty(0),
-                reviewRepository.countByDoctorIdAndRating(doctorId, 4).defaultIfEmpty(0),
-                reviewRepository.countByDoctorIdAndRating(doctorId, 3).defaultIfEmpty(0),
-                reviewRepository.countByDoctorIdAndRating(doctorId, 2).defaultIfEmpty(0),
-                reviewRepository.countByDoctorIdAndRating(doctorId, 1).defaultIfEmpty(0)
-        ).flatMap(tuple -> {
-            double avgRating = tuple.getT1();
-            long totalReviews = tuple.getT2();
-            int fiveStars = tuple.getT3();
-            int fourStars = tuple.getT4();
-            int threeStars = tuple.getT5();
-            int twoStars = tuple.getT6();
-            int oneStars = tuple.getT7();
-
-            // Calculate recommendation rate (4+ stars)
-            long positiveReviews = fiveStars + fourStars;
-            BigDecimal recommendationRate = totalReviews > 0 
-                    ? BigDecimal.valueOf(positiveReviews * 100.0 / totalReviews)
-                            .setScale(2, RoundingMode.HALF_UP)
-                    : BigDecimal.ZERO;
-
-            return aggregateRepository.findByDoctorId(doctorId)
-                    .defaultIfEmpty(DoctorRatingAggregate.empty(doctorId))
-                    .flatMap(aggregate -> {
-                        aggregate.setAverageRating(BigDecimal.valueOf(avgRating)
-                                .setScale(2, RoundingMode.HALF_UP));
-                        aggregate.setTotalReviews((int) totalReviews);
-                        aggregate.setFiveStarCount(fiveStars);
-                        aggregate.setFourStarCount(fourStars);
-                        aggregate.setThreeStarCount(threeStars);
-                        aggregate.setTwoStarCount(twoStars);
-                        aggregate.setOneStarCount(oneStars);
-                        aggregate.setRecommendationRate(recommendationRate);
-                        aggregate.setLastUpdated(Instant.now());
-                        
-                        return aggregateRepository.save(aggregate);
-                    });
-        }).doOnSuccess(aggregate -> 
-                log.info("Updated ratings for doctor {}: avg={}, count={}", 
-                        doctorId, aggregate.getAverageRating(), aggregate.getTotalReviews())
-        );
+    public Mono<Void> applyReviewAdded(DoctorReview review) {
+        if (review.getStatus() != ReviewStatus.APPROVED) {
+            return Mono.empty();
+        }
+        return applyDelta(review, 1);
     }
 
     /**
-     * Update detailed category averages
+     * Adds or removes a review's contribution when its status moves into or out of APPROVED.
      */
     @Transactional
-    public Mono<Void> updateDetailedAverages(UUID doctorId) {
-        return reviewRepository.findByDoctorIdAndStatusOrderByCreatedAtDesc(doctorId, ReviewStatus.APPROVED)
-                .collectList()
-                .flatMap(reviews -> {
-                    if (reviews.isEmpty()) {
-                        return Mono.empty();
+    public Mono<Void> applyStatusChange(DoctorReview review, ReviewStatus previousStatus) {
+        boolean wasApproved = previousStatus == ReviewStatus.APPROVED;
+        boolean isApproved = review.getStatus() == ReviewStatus.APPROVED;
+        if (wasApproved == isApproved) {
+            return Mono.empty();
+        }
+        return applyDelta(review, isApproved ? 1 : -1);
+    }
+
+    /**
+     * Doctors that have an aggregate or at least one review.
+     */
+    public Flux<UUID> findDoctorIds() {
+        return databaseClient.sql(DOCTOR_IDS_SQL)
+                .map(row -> row.get("doctor_id", UUID.class))
+                .all();
+    }
+
+    /**
+     * Recomputes one doctor's aggregate from the approved reviews and rewrites it if it drifted.
+     * <p>
+     * The aggregate row is locked before the reviews are read, in a separate statement, so
+     * the recount sees every review whose delta committed before the lock and a delta
+     * still in flight waits and applies on top of the corrected row.
+     *
+     * @return whether the aggregate was created or corrected
+     */
+    @Transactional
+    public Mono<Boolean> reconcileDoctor(UUID doctorId) {
+        return databaseClient.sql(ENSURE_AGGREGATE_SQL)
+                .bind("doctorId", doctorId)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql(LOCK_AGGREGATE_SQL)
+                        .bind("doctorId", doctorId)
+                        .fetch()
+                        .rowsUpdated())
+                .then(databaseClient.sql(RECONCILE_SQL)
+                        .bind("doctorId", doctorId)
+                        .fetch()
+                        .rowsUpdated())
+                .map(rows -> rows > 0)
+                .doOnNext(drifted -> {
+                    if (drifted) {
+                        meterRegistry.counter("review.ratings.reconcile.drifted").increment();
                     }
+                });
+    }
+
+    private Mono<Void> applyDelta(DoctorReview review, int sign) {
+        UUID doctorId = review.getDoctorId();
+        int rating = review.getOverallRating();
+        boolean video = review.getConsultationType() == ConsultationType.VIDEO;
+        boolean inPerson = review.getConsultationType() == ConsultationType.IN_PERSON;
+
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql(APPLY_DELTA_SQL)
+                .bind("doctorId", doctorId)
+                .bind("reviews", sign)
+                .bind("ratingSum", sign * rating)
+                .bind("five", rating == 5 ? sign : 0)
+                .bind("four", rating == 4 ? sign : 0)
+                .bind("three", rating == 3 ? sign : 0)
+                .bind("two", rating == 2 ? sign : 0)
+                .bind("one", rating == 1 ? sign : 0)
+                .bind("waitSum", sign * valueOf(review.getWaitTimeRating()))
+                .bind("waitCount", review.getWaitTimeRating() != null ? sign : 0)
+                .bind("bedsideSum", sign * valueOf(review.getBedsideMannerRating()))
+                .bind("bedsideCount", review.getBedsideMannerRating() != null ? sign : 0)
+                .bind("explanationSum", sign * valueOf(review.getExplanationRating()))
+                .bind("explanationCount", review.getExplanationRating() != null ? sign : 0)
+                .bind("videoCount", video ? sign : 0)
+                .bind("videoSum", video ? sign * rating : 0)
+                .bind("inPersonCount", inPerson ? sign : 0)
+                .bind("inPersonSum", inPerson ? sign * rating : 0);
 
-                    double avgWaitTime = reviews.stream()
-                            .filter(r -> r.getWaitTimeRating() != null)
-                            .mapToInt(r -> r.getWaitTimeRating())
-                            .average()
-                            .orElse(0.0);
-
-                    double avgBedside = reviews.stream()
-                            .filter(r -> r.getBedsideMannerRating() != null)
-                            .mapToInt(r -> r.getBedsideMannerRating())
-                            .average()
-                            .orElse(0.0);
-
-                    double avgExplanation = reviews.stream()
-                            .filter(r -> r.getExplanationRating() != null)
-                            .mapToInt(r -> r.getExplanationRating())
-                            .average()
-                            .orElse(0.0);
-
-                    // Video consultation stats
-                    var videoReviews = reviews.stream()
-                            .filter(r -> r.getConsultationType() == ConsultationType.VIDEO)
-                            .toList();
-                    double videoAvg = videoReviews.stream()
-                            .mapToInt(r -> r.getOverallRating())
-                            .average()
-                            .orElse(0.0);
-
-                    // In-person consultation stats
-                    var inPersonReviews = reviews.stream()
-                            .filter(r -> r.getConsultationType() == ConsultationType.IN_PERSON)
-                            .toList();
-                    double inPersonAvg = inPersonReviews.stream()
-                            .mapToInt(r -> r.getOverallRating())
-                            .average()
-                            .orElse(0.0);
-
-                    return aggregateRepository.findByDoctorId(doctorId)
-                            .flatMap(aggregate -> {
-                                aggregate.setAvgWaitTimeRating(toBigDecimal(avgWaitTime));
-                                aggregate.setAvgBedsideMannerRating(toBigDecimal(avgBedside));
-                                aggregate.setAvgExplanationRating(toBigDecimal(avgExplanation));
-                                aggregate.setVideoConsultationRating(toBigDecimal(videoAvg));
-                                aggregate.setVideoConsultationCount(videoReviews.size());
-                                aggregate.setInPersonRating(toBigDecimal(inPersonAvg));
-                                aggregate.setInPersonCount(inPersonReviews.size());
-                                aggregate.setLastUpdated(Instant.now());
-                                return aggregateRepository.save(aggregate);
-                            });
-                })
+        return databaseClient.sql(ENSURE_AGGREGATE_SQL)
+                .bind("doctorId", doctorId)
+                .fetch()
+                .rowsUpdated()
+                .then(update.fetch().rowsUpdated())
+                .doOnSuccess(rows -> log.debug("Applied rating delta {} for review {} to doctor {}",
+                        sign, review.getId(), doctorId))
                 .then();
     }
 
-    private BigDecimal toBigDecimal(double value) {
-        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    private static int valueOf(Integer rating) {
+        return rating != null ? rating : 0;
     }
 }
@@ -0,0 +1,88 @@
+package com.healthapp.review.service;
+
+import io.r2dbc.spi.Connection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically recomputes the rating aggregates from the reviews, correcting any drift
+ * left by the incremental updates (failed deltas, manual data fixes).
+ * <p>
+ * Doctors are reconciled one at a time, each in its own short transaction. The run holds a
+ * Postgres advisory lock for its duration, so only one replica reconciles; the lock is tied
+ * to the session and released if the holder dies.
+ */
+@Profile("!test")
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RatingReconciliationJob {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(hashtext('rating-reconciliation-job'))";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(hashtext('rating-reconciliation-job'))";
+
+    private final RatingAggregationService ratingAggregationService;
+    private final DatabaseClient databaseClient;
+
+    @Value("${review.ratings.reconcile.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${review.ratings.reconcile.cron:0 30 3 * * *}") // Default: 03:30 daily
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        databaseClient
+                .inConnection(connection -> querySingle(connection, TRY_LOCK)
+                        .flatMap(acquired -> {
+                            if (!acquired) {
+                                log.info("Rating aggregates are being reconciled by another replica, skipping");
+                                return Mono.empty();
+                            }
+                            log.info("Reconciling doctor rating aggregates");
+                            return reconcileAll()
+                                    .doOnNext(drifted -> {
+                                        if (drifted > 0) {
+                                            log.warn("Corrected {} drifted doctor rating aggregates", drifted);
+                                        } else {
+                                            log.info("Doctor rating aggregates are consistent");
+                                        }
+                                    })
+                                    .onErrorResume(error -> {
+                                        log.error("Error reconciling doctor rating aggregates", error);
+                                        return Mono.empty();
+                                    })
+                                    .then(querySingle(connection, UNLOCK));
+                        }))
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        null,
+                        error -> log.error("Could not run rating reconciliation job", error));
+    }
+
+    private Mono<Long> reconcileAll() {
+        return ratingAggregationService.findDoctorIds()
+                .flatMap(doctorId -> ratingAggregationService.reconcileDoctor(doctorId)
+                        .onErrorResume(e -> {
+                            log.error("Failed to reconcile rating aggregate for doctor {}", doctorId, e);
+                            return Mono.just(false);
+                        }), parallelism)
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    private static Mono<Boolean> querySingle(Connection connection, String sql) {
+        return Mono.from(connection.createStatement(sql).execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Boolean.class))));
+    }
+}
@@ -0,0 +1,138 @@
+package com.healthapp.review.service;
+
+import org.springframework.context.annotation.Profile;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.review.dto.DoctorRatingResponse;
+import com.healthapp.review.dto.ReviewResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Redis cache for what a doctor profile page reads on every view: the head of the
+ * doctor's approved review feed and the rating aggregate.
+ * <p>
+ * Entries are evicted by the write paths that change them (submission, moderation,
+ * votes, doctor responses) and otherwise expire after {@code review.cache.ttl-seconds}.
+ * Inside a transaction the eviction runs after commit, so a concurrent read cannot
+ * re-cache the pre-commit rows. Redis failures fall back to the database.
+ */
+@Profile("!test")
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReviewCache {
+
+    private static final String FEED_KEY_PREFIX = "reviews:feed:";
+    private static final String RATING_KEY_PREFIX = "reviews:rating:";
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${review.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${review.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * Returns the cached feed head for the doctor, loading and caching it on a miss.
+     */
+    public Mono<List<ReviewResponse>> getFeedHead(UUID doctorId, Supplier<Mono<List<ReviewResponse>>> loader) {
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, ReviewResponse.class);
+        return get("feed", FEED_KEY_PREFIX + doctorId, type, loader);
+    }
+
+    /**
+     * Returns the cached rating for the doctor, loading and caching it on a miss.
+     */
+    public Mono<DoctorRatingResponse> getRating(UUID doctorId, Supplier<Mono<DoctorRatingResponse>> loader) {
+        JavaType type = objectMapper.getTypeFactory().constructType(DoctorRatingResponse.class);
+        return get("rating", RATING_KEY_PREFIX + doctorId, type, loader);
+    }
+
+    /**
+     * Evicts the feed and rating of a doctor whose approved review set changed.
+     */
+    public Mono<Void> evictDoctor(UUID doctorId) {
+        return evict(FEED_KEY_PREFIX + doctorId, RATING_KEY_PREFIX + doctorId);
+    }
+
+    /**
+     * Evicts the feed of a doctor after a review in it changed without affecting the rating.
+     */
+    public Mono<Void> evictFeed(UUID doctorId) {
+        return evict(FEED_KEY_PREFIX + doctorId);
+    }
+
+    private <T> Mono<T> get(String cache, String key, JavaType type, Supplier<Mono<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return redisTemplate.opsForValue().get(key)
+                .<T>map(value -> objectMapper.convertValue(value, type))
+                .onErrorResume(error -> {
+                    log.warn("Review cache read failed for {}, falling back to database", key, error);
+                    return Mono.empty();
+                })
+                .doOnNext(value -> sample.stop(requestTimer(cache, "hit")))
+                .switchIfEmpty(Mono.defer(() -> loader.get()
+                        .doOnNext(value -> sample.stop(requestTimer(cache, "miss")))
+                        .flatMap(value -> redisTemplate.opsForValue()
+                                .set(key, value, Duration.ofSeconds(ttlSeconds))
+                                .onErrorResume(error -> {
+                                    log.warn("Review cache write failed for {}", key, error);
+                                    return Mono.just(false);
+                                })
+                                .thenReturn(value))));
+    }
+
+    private Mono<Void> evict(String... keys) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        Mono<Void> evict = redisTemplate.delete(keys)
+                .onErrorResume(error -> {
+                    log.warn("Review cache eviction failed", error);
+                    return Mono.empty();
+                })
+                .then();
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return evict;
+                    }
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return evict;
+                        }
+                    });
+                    return Mono.empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> evict);
+    }
+
+    private Timer requestTimer(String cache, String result) {
+        return Timer.builder("review.cache.requests")
+                .description("Review reads by cache and whether Redis answered")
+                .tags("cache", cache, "result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,7 @@
 package com.healthapp.review.service;
 
 import org.springframework.context.annotation.Profile;
+import com.healthapp.common.dto.CursorPage;
 import com.healthapp.review.dto.*;
 import com.healthapp.review.model.entity.DoctorRatingAggregate;
 import com.healthapp.review.model.entity.DoctorReview;
@@ -38,6 +39,18 @@ public class ReviewService {
     private final VoteRepository voteRepository;
     private final RatingAggregationService ratingAggregationService;
     private final ReviewEventPublisher eventPublisher;
+    private final ReviewCache reviewCache;
+    private final VoteCounterService voteCounterService;
+
+    // Sentinel for the first feed page: sorts after every real review
+    private static final ReviewCursor NEWEST = new ReviewCursor(
+            Instant.parse("9999-12-31T23:59:59Z"), new UUID(-1L, -1L));
+
+    @Value("${review.cache.feed-size:50}")
+    private int feedSize;
+
+    @Value("${review.feed.max-page-size:50}")
+    private int maxFeedPageSize;
 
     @Value("${moderation.auto-approve.enabled:true}")
     private boolean autoApproveEnabled;
@@ -101,11 +114,12 @@ public class ReviewService {
         review.setImprovementTagsList(request.getImprovementTags());
 
         return reviewRepository.save(review)
+                .flatMap(savedReview -> ratingAggregationService.applyReviewAdded(savedReview)
+                        .then(savedReview.getStatus() == ReviewStatus.APPROVED
+                                ? reviewCache.evictDoctor(savedReview.getDoctorId())
+                                : Mono.empty())
+                        .thenReturn(savedReview))
                 .flatMap(savedReview -> {
-                    // Update aggregates asynchronously
-                    ratingAggregationService.updateDoctorRatings(savedReview.getDoctorId())
-                            .subscribe();
-
                     // Publish event
                     eventPublisher.publishReviewSubmitted(savedReview);
 
@@ -130,13 +144,66 @@ public class ReviewService {
                 .map(this::toResponse);
     }
 
+    /**
+     * Keyset page of a doctor's approved reviews, newest first.
+     * <p>
+     * Pages within the first {@code review.cache.feed-size} reviews are served from the
+     * cached feed head; deeper pages, or cursors no longer in the head, go to the database.
+     */
+    public Mono<CursorPage<ReviewResponse>> getDoctorReviewPage(UUID doctorId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxFeedPageSize));
+        ReviewCursor after = cursor != null ? ReviewCursor.decode(cursor) : null;
+
+        return reviewCache.getFeedHead(doctorId, () -> findFeedPage(doctorId, NEWEST, feedSize).collectList())
+                .flatMap(head -> {
+                    int start = after == null ? 0 : indexOf(head, after.id()) + 1;
+                    if (after == null || start > 0) {
+                        List<ReviewResponse> window = head.subList(
+                                Math.min(start, head.size()), Math.min(start + limit + 1, head.size()));
+                        // A short head holds the whole feed, so a short window is the real end
+                        if (window.size() > limit || head.size() < feedSize) {
+                            return Mono.just(toCursorPage(window, limit));
+                        }
+                    }
+                    return findFeedPage(doctorId, after != null ? after : NEWEST, limit + 1)
+                            .collectList()
+                            .map(page -> toCursorPage(page, limit));
+                });
+    }
+
+    private Flux<ReviewResponse> findFeedPage(UUID doctorId, ReviewCursor after, int limit) {
+        return reviewRepository.findApprovedFeedPage(doctorId, after.createdAt(), after.id(), limit)
+                .map(this::toResponse);
+    }
+
+    private static int indexOf(List<ReviewResponse> reviews, UUID reviewId) {
+        for (int i = 0; i < reviews.size(); i++) {
+            if (reviewId.equals(reviews.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Turns a fetch of up to {@code limit + 1} reviews into a page; the extra review only
+     * signals that another page exists.
+     */
+    private static CursorPage<ReviewResponse> toCursorPage(List<ReviewResponse> reviews, int limit) {
+        if (reviews.size() <= limit) {
+            return CursorPage.of(List.copyOf(reviews), limit, null);
+        }
+        List<ReviewResponse> content = List.copyOf(reviews.subList(0, limit));
+        return CursorPage.of(content, limit, ReviewCursor.of(content.get(limit - 1)).encode());
+    }
+
     /**
      * Get rating aggregate for doctor
      */
     public Mono<DoctorRatingResponse> getDoctorRating(UUID doctorId) {
-        return aggregateRepository.findByDoctorId(doctorId)
+        return reviewCache.getRating(doctorId, () -> aggregateRepository.findByDoctorId(doctorId)
                 .defaultIfEmpty(DoctorRatingAggregate.empty(doctorId))
-                .map(this::toRatingResponse);
+                .map(this::toRatingResponse));
     }
 
     /**
@@ -154,51 +221,44 @@ public class ReviewService {
                     review.setDoctorRespondedAt(Instant.now());
                     return reviewRepository.save(review);
                 })
+                .flatMap(review -> reviewCache.evictFeed(review.getDoctorId()).thenReturn(review))
                 .map(this::toResponse)
                 .doOnSuccess(response -> eventPublisher.publishDoctorResponded(reviewId));
     }
 
     /**
-     * Vote review as helpful/not helpful
+     * Vote review as helpful/not helpful. The vote row is written here; the review's
+     * counters are updated by {@link VoteCounterService} on its next flush.
      */
     @Transactional
     public Mono<Void> voteReview(UUID userId, UUID reviewId, VoteType voteType) {
         return voteRepository.findByReviewIdAndUserId(reviewId, userId)
                 .flatMap(existingVote -> {
-                    if (existingVote.getVoteType() == voteType) {
+                    VoteType previousType = existingVote.getVoteType();
+                    if (previousType == voteType) {
                         // Remove vote if same type
                         return voteRepository.delete(existingVote)
-                                .then(updateVoteCounts(reviewId));
+                                .then(voteCounterService.record(reviewId, voteType, -1))
+                                .thenReturn(existingVote);
                     } else {
                         // Change vote type
                         existingVote.setVoteType(voteType);
                         return voteRepository.save(existingVote)
-                                .then(updateVoteCounts(reviewId));
+                                .then(voteCounterService.record(reviewId, previousType, -1))
+                                .then(voteCounterService.record(reviewId, voteType, 1))
+                                .thenReturn(existingVote);
                     }
                 })
-                .switchIfEmpty(
+                .switchIfEmpty(Mono.defer(() ->
                         // Create new vote
                         voteRepository.save(ReviewVote.builder()
                                         .reviewId(reviewId)
                                         .userId(userId)
                                         .voteType(voteType)
                                         .build())
-                                .then(updateVoteCounts(reviewId))
-                );
-    }
-
-    private Mono<Void> updateVoteCounts(UUID reviewId) {
-        return reviewRepository.findById(reviewId)
-                .flatMap(review -> 
-                        Mono.zip(
-                                voteRepository.countByReviewIdAndVoteType(reviewId, VoteType.HELPFUL),
-                                voteRepository.countByReviewIdAndVoteType(reviewId, VoteType.NOT_HELPFUL)
-                        ).flatMap(counts -> {
-                            review.setHelpfulCount(counts.getT1());
-                            review.setNotHelpfulCount(counts.getT2());
-                            return reviewRepository.save(review);
-                        })
-                )
+                                .flatMap(vote -> voteCounterService.record(reviewId, voteType, 1)
+                                        .thenReturn(vote))
+                ))
                 .then();
     }
 
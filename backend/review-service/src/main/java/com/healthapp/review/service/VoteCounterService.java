@@ -0,0 +1,295 @@
+package com.healthapp.review.service;
+
+import org.springframework.context.annotation.Profile;
+import com.healthapp.review.model.enums.VoteType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind counters for review helpfulness votes.
+ * <p>
+ * A vote adds its delta to a Redis hash with {@code HINCRBY}, which is atomic and does
+ * not touch the review row. A scheduled flush atomically takes the accumulated hash
+ * ({@code RENAME} to a per-flush key) and applies it to {@code helpful_count} and
+ * {@code not_helpful_count} with one UPDATE per batch of reviews, so a hot review gets
+ * one row write per flush instead of one per vote. The fields of each committed batch are
+ * removed from the flushing key, so it only ever holds deltas not yet in the database. If
+ * an UPDATE fails, what is left is added back to the pending hash. Readers see counts at
+ * most one flush interval old.
+ * <p>
+ * Votes are recorded once the transaction that wrote the vote row commits, so a rolled back
+ * vote never reaches the counters. Flushing keys left behind by an instance that died
+ * mid-flush are picked up by a periodic sweep once older than
+ * {@code review.votes.orphan-after-ms}.
+ */
+@Profile("!test")
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VoteCounterService {
+
+    private static final String PENDING_KEY = "reviews:votes:pending";
+    private static final String FLUSHING_KEY_PREFIX = "reviews:votes:flushing:";
+    private static final String HELPFUL_SUFFIX = ":helpful";
+    private static final String NOT_HELPFUL_SUFFIX = ":not_helpful";
+
+    // UPDATE ... FROM unnest locks rows in join order, so the batch is locked in ID order first;
+    // concurrent flushes from several instances then cannot deadlock
+    private static final String LOCK_REVIEWS_SQL = """
+        SELECT id FROM doctor_reviews
+        WHERE id = ANY(:ids::uuid[])
+        ORDER BY id
+        FOR UPDATE
+        """;
+
+    private static final String APPLY_COUNTS_SQL = """
+        UPDATE doctor_reviews r SET
+            helpful_count = COALESCE(r.helpful_count, 0) + d.helpful,
+            not_helpful_count = COALESCE(r.not_helpful_count, 0) + d.not_helpful
+        FROM unnest(:ids::uuid[], :helpful::int[], :notHelpful::int[]) AS d(id, helpful, not_helpful)
+        WHERE r.id = d.id
+        RETURNING r.doctor_id
+        """;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ReviewCache reviewCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${review.votes.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${review.votes.orphan-after-ms:300000}")
+    private long orphanAfterMs;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Counter recordedCounter;
+    private Counter flushedCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        recordedCounter = meterRegistry.counter("review.votes.recorded");
+        flushedCounter = meterRegistry.counter("review.votes.flushed.reviews");
+        flushTimer = meterRegistry.timer("review.votes.flush.duration");
+    }
+
+    /**
+     * Adds a vote delta for a review; {@code delta} is +1 for a new vote and -1 for a removed one.
+     * Inside a transaction the delta is added after commit.
+     */
+    public Mono<Void> record(UUID reviewId, VoteType voteType, int delta) {
+        String field = reviewId + (voteType == VoteType.HELPFUL ? HELPFUL_SUFFIX : NOT_HELPFUL_SUFFIX);
+        Mono<Void> increment = redisTemplate.opsForHash().increment(PENDING_KEY, field, delta)
+                .doOnSuccess(value -> recordedCounter.increment())
+                .onErrorResume(error -> {
+                    log.error("Failed to record vote delta {} for review {}", delta, reviewId, error);
+                    return Mono.empty();
+                })
+                .then();
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return increment;
+                    }
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return increment;
+                        }
+                    });
+                    return Mono.empty();
+                })
+                .onErrorResume(NoTransactionException.class, e -> increment);
+    }
+
+    @Scheduled(fixedDelayString = "${review.votes.flush-interval-ms:1000}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        flushPending()
+                .doFinally(signal -> {
+                    sample.stop(flushTimer);
+                    flushing.set(false);
+                })
+                .subscribe(
+                        reviews -> {
+                            if (reviews > 0) {
+                                log.debug("Flushed vote counts for {} reviews", reviews);
+                            }
+                        },
+                        error -> log.error("Error flushing review vote counts", error)
+                );
+    }
+
+    /**
+     * Flushes flushing keys whose flush never finished, e.g. because the instance died.
+     */
+    @Scheduled(fixedDelayString = "${review.votes.orphan-sweep-interval-ms:60000}")
+    public void sweepOrphans() {
+        long cutoff = System.currentTimeMillis() - orphanAfterMs;
+        redisTemplate.scan(ScanOptions.scanOptions().match(FLUSHING_KEY_PREFIX + "*").count(100).build())
+                .filter(key -> flushingKeyCreatedAt(key) < cutoff)
+                // Renaming claims the key, so only one instance flushes a given orphan
+                .concatMap(orphan -> flushKey(orphan)
+                        .doOnNext(reviews -> log.warn("Flushed orphaned vote counts {} for {} reviews", orphan, reviews)))
+                .subscribe(
+                        null,
+                        error -> log.error("Error sweeping orphaned review vote counts", error)
+                );
+    }
+
+    /**
+     * Applies all pending deltas to the database.
+     *
+     * @return number of reviews updated
+     */
+    Mono<Integer> flushPending() {
+        return redisTemplate.hasKey(PENDING_KEY)
+                .filter(Boolean::booleanValue)
+                .flatMap(exists -> flushKey(PENDING_KEY))
+                .defaultIfEmpty(0);
+    }
+
+    /**
+     * Moves {@code key} to a new flushing key and applies its deltas; empty if the key is gone.
+     */
+    private Mono<Integer> flushKey(String key) {
+        String flushingKey = FLUSHING_KEY_PREFIX + System.currentTimeMillis() + ":" + UUID.randomUUID();
+        return redisTemplate.rename(key, flushingKey)
+                .onErrorResume(error -> {
+                    log.debug("Vote counts {} already claimed", key);
+                    return Mono.empty();
+                })
+                .flatMap(renamed -> redisTemplate.<String, String>opsForHash().entries(flushingKey)
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+                .flatMap(entries -> {
+                    Set<UUID> applied = new HashSet<>();
+                    return applyDeltas(flushingKey, entries, applied)
+                            .onErrorResume(error -> {
+                                Map<String, String> unapplied = new HashMap<>(entries);
+                                unapplied.keySet().removeIf(field -> applied.contains(reviewIdOf(field)));
+                                log.error("Failed to apply {} vote deltas, returning them to the pending counters",
+                                        unapplied.size(), error);
+                                return restore(flushingKey, unapplied).thenReturn(applied.size());
+                            })
+                            .flatMap(reviews -> redisTemplate.delete(flushingKey).thenReturn(reviews));
+                });
+    }
+
+    /**
+     * Applies the deltas batch by batch. Once a batch commits its review IDs are added to
+     * {@code applied} and its fields removed from {@code flushingKey}.
+     */
+    private Mono<Integer> applyDeltas(String flushingKey, Map<String, String> entries, Set<UUID> applied) {
+        // reviewId -> [helpful, notHelpful]
+        Map<UUID, int[]> deltas = new HashMap<>();
+        entries.forEach((field, value) -> {
+            boolean helpful = field.endsWith(HELPFUL_SUFFIX);
+            UUID reviewId = reviewIdOf(field);
+            deltas.computeIfAbsent(reviewId, id -> new int[2])[helpful ? 0 : 1] += Integer.parseInt(value);
+        });
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+
+        List<Map.Entry<UUID, int[]>> all = new ArrayList<>(deltas.entrySet());
+        return Flux.fromIterable(all)
+                .buffer(flushBatchSize)
+                .concatMap(batch -> {
+                    UUID[] ids = new UUID[batch.size()];
+                    Integer[] helpful = new Integer[batch.size()];
+                    Integer[] notHelpful = new Integer[batch.size()];
+                    for (int i = 0; i < batch.size(); i++) {
+                        ids[i] = batch.get(i).getKey();
+                        helpful[i] = batch.get(i).getValue()[0];
+                        notHelpful[i] = batch.get(i).getValue()[1];
+                    }
+                    return databaseClient.sql(LOCK_REVIEWS_SQL)
+                            .bind("ids", ids)
+                            .fetch()
+                            .all()
+                            .thenMany(databaseClient.sql(APPLY_COUNTS_SQL)
+                                    .bind("ids", ids)
+                                    .bind("helpful", helpful)
+                                    .bind("notHelpful", notHelpful)
+                                    .map(row -> row.get("doctor_id", UUID.class))
+                                    .all())
+                            .as(transactionalOperator::transactional)
+                            .collectList()
+                            .flatMapMany(doctorIds -> {
+                                applied.addAll(Arrays.asList(ids));
+                                Object[] fields = Arrays.stream(ids)
+                                        .flatMap(id -> Stream.of(id + HELPFUL_SUFFIX, id + NOT_HELPFUL_SUFFIX))
+                                        .toArray();
+                                return redisTemplate.opsForHash().remove(flushingKey, fields)
+                                        .thenMany(Flux.fromIterable(doctorIds));
+                            });
+                })
+                .collectList()
+                .flatMap(doctorIds -> {
+                    flushedCounter.increment(doctorIds.size());
+                    // Cached feeds carry the counts
+                    return Flux.fromIterable(doctorIds)
+                            .distinct()
+                            .flatMap(reviewCache::evictFeed)
+                            .then(Mono.just(doctorIds.size()));
+                });
+    }
+
+    private static UUID reviewIdOf(String field) {
+        return UUID.fromString(field.substring(0, field.indexOf(':')));
+    }
+
+    private static long flushingKeyCreatedAt(String key) {
+        String rest = key.substring(FLUSHING_KEY_PREFIX.length());
+        int end = rest.indexOf(':');
+        try {
+            return Long.parseLong(end >= 0 ? rest.substring(0, end) : rest);
+        } catch (NumberFormatException e) {
+            // Keys from before timestamps were added are old enough by now
+            return 0;
+        }
+    }
+
+    /**
+     * Moves deltas back to the pending hash one field at a time, so whatever is still in
+     * {@code flushingKey} after a failure has not been counted anywhere else.
+     */
+    private Mono<Void> restore(String flushingKey, Map<String, String> entries) {
+        return Flux.fromIterable(entries.entrySet())
+                .flatMap(entry -> redisTemplate.opsForHash()
+                        .increment(PENDING_KEY, entry.getKey(), Long.parseLong(entry.getValue()))
+                        .then(redisTemplate.opsForHash().remove(flushingKey, entry.getKey())))
+                .then();
+    }
+}
@@ -0,0 +1,107 @@
+-- V2__incremental_rating_aggregates.sql
+
+-- Running sums behind the averages, so a review can be applied to the aggregate
+-- as a delta instead of re-aggregating every review of the doctor.
+ALTER TABLE doctor_rating_aggregates
+    ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN wait_time_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN wait_time_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN bedside_manner_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN bedside_manner_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN explanation_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN explanation_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN video_rating_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN in_person_rating_sum BIGINT NOT NULL DEFAULT 0;
+
+-- Deltas are added to the distribution counts, so they must not be NULL
+UPDATE doctor_rating_aggregates SET
+    five_star_count = COALESCE(five_star_count, 0),
+    four_star_count = COALESCE(four_star_count, 0),
+    three_star_count = COALESCE(three_star_count, 0),
+    two_star_count = COALESCE(two_star_count, 0),
+    one_star_count = COALESCE(one_star_count, 0),
+    video_consultation_count = COALESCE(video_consultation_count, 0),
+    in_person_count = COALESCE(in_person_count, 0);
+
+ALTER TABLE doctor_rating_aggregates
+    ALTER COLUMN five_star_count SET NOT NULL,
+    ALTER COLUMN four_star_count SET NOT NULL,
+    ALTER COLUMN three_star_count SET NOT NULL,
+    ALTER COLUMN two_star_count SET NOT NULL,
+    ALTER COLUMN one_star_count SET NOT NULL,
+    ALTER COLUMN video_consultation_count SET NOT NULL,
+    ALTER COLUMN in_person_count SET NOT NULL;
+
+-- Backfill every aggregate from the approved reviews (same statement as the reconciliation job)
+WITH stats AS (
+    SELECT d.doctor_id,
+           COUNT(r.id) AS total_reviews,
+           COALESCE(SUM(r.overall_rating), 0) AS rating_sum,
+           COUNT(*) FILTER (WHERE r.overall_rating = 5) AS five_star_count,
+           COUNT(*) FILTER (WHERE r.overall_rating = 4) AS four_star_count,
+           COUNT(*) FILTER (WHERE r.overall_rating = 3) AS three_star_count,
+           COUNT(*) FILTER (WHERE r.overall_rating = 2) AS two_star_count,
+           COUNT(*) FILTER (WHERE r.overall_rating = 1) AS one_star_count,
+           COALESCE(SUM(r.wait_time_rating), 0) AS wait_time_sum,
+           COUNT(r.wait_time_rating) AS wait_time_count,
+           COALESCE(SUM(r.bedside_manner_rating), 0) AS bedside_manner_sum,
+           COUNT(r.bedside_manner_rating) AS bedside_manner_count,
+           COALESCE(SUM(r.explanation_rating), 0) AS explanation_sum,
+           COUNT(r.explanation_rating) AS explanation_count,
+           COUNT(*) FILTER (WHERE r.consultation_type = 'VIDEO') AS video_consultation_count,
+           COALESCE(SUM(r.overall_rating) FILTER (WHERE r.consultation_type = 'VIDEO'), 0) AS video_rating_sum,
+           COUNT(*) FILTER (WHERE r.consultation_type = 'IN_PERSON') AS in_person_count,
+           COALESCE(SUM(r.overall_rating) FILTER (WHERE r.consultation_type = 'IN_PERSON'), 0) AS in_person_rating_sum
+    FROM (SELECT doctor_id FROM doctor_rating_aggregates UNION SELECT doctor_id FROM doctor_reviews) d
+    LEFT JOIN doctor_reviews r ON r.doctor_id = d.doctor_id AND r.status = 'APPROVED'
+    GROUP BY d.doctor_id
+)
+INSERT INTO doctor_rating_aggregates (
+    doctor_id, total_reviews, rating_sum,
+    five_star_count, four_star_count, three_star_count, two_star_count, one_star_count,
+    wait_time_sum, wait_time_count, bedside_manner_sum, bedside_manner_count,
+    explanation_sum, explanation_count,
+    video_consultation_count, video_rating_sum, in_person_count, in_person_rating_sum,
+    average_rating, recommendation_rate,
+    avg_wait_time_rating, avg_bedside_manner_rating, avg_explanation_rating,
+    video_consultation_rating, in_person_rating, last_updated)
+SELECT doctor_id, total_reviews, rating_sum,
+       five_star_count, four_star_count, three_star_count, two_star_count, one_star_count,
+       wait_time_sum, wait_time_count, bedside_manner_sum, bedside_manner_count,
+       explanation_sum, explanation_count,
+       video_consultation_count, video_rating_sum, in_person_count, in_person_rating_sum,
+       COALESCE(ROUND(rating_sum::numeric / NULLIF(total_reviews, 0), 2), 0),
+       COALESCE(ROUND((five_star_count + four_star_count) * 100.0 / NULLIF(total_reviews, 0), 2), 0),
+       ROUND(wait_time_sum::numeric / NULLIF(wait_time_count, 0), 2),
+       ROUND(bedside_manner_sum::numeric / NULLIF(bedside_manner_count, 0), 2),
+       ROUND(explanation_sum::numeric / NULLIF(explanation_count, 0), 2),
+       ROUND(video_rating_sum::numeric / NULLIF(video_consultation_count, 0), 2),
+       ROUND(in_person_rating_sum::numeric / NULLIF(in_person_count, 0), 2),
+       NOW()
+FROM stats
+ON CONFLICT (doctor_id) DO UPDATE SET
+    total_reviews = EXCLUDED.total_reviews,
+    rating_sum = EXCLUDED.rating_sum,
+    five_star_count = EXCLUDED.five_star_count,
+    four_star_count = EXCLUDED.four_star_count,
+    three_star_count = EXCLUDED.three_star_count,
+    two_star_count = EXCLUDED.two_star_count,
+    one_star_count = EXCLUDED.one_star_count,
+    wait_time_sum = EXCLUDED.wait_time_sum,
+    wait_time_count = EXCLUDED.wait_time_count,
+    bedside_manner_sum = EXCLUDED.bedside_manner_sum,
+    bedside_manner_count = EXCLUDED.bedside_manner_count,
+    explanation_sum = EXCLUDED.explanation_sum,
+    explanation_count = EXCLUDED.explanation_count,
+    video_consultation_count = EXCLUDED.video_consultation_count,
+    video_rating_sum = EXCLUDED.video_rating_sum,
+    in_person_count = EXCLUDED.in_person_count,
+    in_person_rating_sum = EXCLUDED.in_person_rating_sum,
+    average_rating = EXCLUDED.average_rating,
+    recommendation_rate = EXCLUDED.recommendation_rate,
+    avg_wait_time_rating = EXCLUDED.avg_wait_time_rating,
+    avg_bedside_manner_rating = EXCLUDED.avg_bedside_manner_rating,
+    avg_explanation_rating = EXCLUDED.avg_explanation_rating,
+    video_consultation_rating = EXCLUDED.video_consultation_rating,
+    in_person_rating = EXCLUDED.in_person_rating,
+    last_updated = EXCLUDED.last_updated;
@@ -0,0 +1,6 @@
+-- V3__add_review_feed_index.sql
+
+-- The doctor review feed lists approved reviews newest first and pages with
+-- (created_at, id) < (:createdAt, :id); this partial index answers it at any depth.
+CREATE INDEX idx_reviews_doctor_feed ON doctor_reviews(doctor_id, created_at DESC, id DESC)
+    WHERE status = 'APPROVED';
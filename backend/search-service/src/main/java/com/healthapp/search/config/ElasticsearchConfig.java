@@ -1,5 +1,6 @@
 package com.healthapp.search.config;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
@@ -12,15 +13,23 @@ import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.elasticsearch.repository.config.EnableReactiveElasticsearchRepositories;
 
 /**
  * Elasticsearch configuration for reactive operations.
  * Disabled in test profile to avoid requiring Elasticsearch during tests.
+ * <p>
+ * Interactive search runs on its own connection pool, sized to
+ * {@code app.search.max-concurrency}, through the {@code searchAsyncClient} bean. The
+ * primary clients are for everything else (reindex bulk writes, Kafka indexing, export
+ * and Spring Data repositories) and use a separate pool, so background work cannot take
+ * the connections the search concurrency limit relies on.
  */
 @Configuration
 @Profile("!test")
@@ -36,27 +45,66 @@ public class ElasticsearchConfig {
     @Value("${spring.elasticsearch.password:}")
     private String password;
     
+    @Value("${app.search.es.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+    
+    @Value("${app.search.es.socket-timeout-ms:5000}")
+    private int socketTimeoutMs;
+    
+    @Value("${app.search.max-concurrency:64}")
+    private int searchMaxConnections;
+    
+    @Value("${app.search.es.background-max-connections:16}")
+    private int backgroundMaxConnections;
+    
     @Bean
+    @Primary
     public RestClient restClient() {
+        return buildRestClient(backgroundMaxConnections);
+    }
+    
+    @Bean
+    public RestClient searchRestClient() {
+        return buildRestClient(searchMaxConnections);
+    }
+    
+    private RestClient buildRestClient(int maxConnections) {
         RestClientBuilder builder = RestClient.builder(HttpHost.create(elasticsearchUri));
         
+        builder.setRequestConfigCallback(requestConfig -> requestConfig
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs)
+        );
+        
+        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         if (username != null && !username.isEmpty()) {
-            BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
             credentialsProvider.setCredentials(
                     AuthScope.ANY,
                     new UsernamePasswordCredentials(username, password)
             );
-            
-            builder.setHttpClientConfigCallback(httpClientBuilder ->
-                    httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider)
-            );
         }
         
+        builder.setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+        );
+        
         return builder.build();
     }
     
     @Bean
+    @Primary
     public ElasticsearchTransport elasticsearchTransport(RestClient restClient) {
+        return buildTransport(restClient);
+    }
+    
+    @Bean
+    public ElasticsearchTransport searchTransport(@Qualifier("searchRestClient") RestClient searchRestClient) {
+        return buildTransport(searchRestClient);
+    }
+    
+    private ElasticsearchTransport buildTransport(RestClient restClient) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         
@@ -67,4 +115,22 @@ public class ElasticsearchConfig {
     public ElasticsearchClient elasticsearchClient(ElasticsearchTransport transport) {
         return new ElasticsearchClient(transport);
     }
+    
+    /**
+     * Non-blocking client sharing the same transport; responses complete on the HTTP
+     * client's I/O threads rather than on the caller's thread.
+     */
+    @Bean
+    @Primary
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchTransport transport) {
+        return new ElasticsearchAsyncClient(transport);
+    }
+    
+    /**
+     * Non-blocking client on the search pool, for interactive queries only.
+     */
+    @Bean
+    public ElasticsearchAsyncClient searchAsyncClient(@Qualifier("searchTransport") ElasticsearchTransport searchTransport) {
+        return new ElasticsearchAsyncClient(searchTransport);
+    }
 }
@@ -0,0 +1,25 @@
+package com.healthapp.search.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * WebClient configuration for inter-service communication.
+ */
+@Profile("!test")
+@Configuration
+public class WebClientConfig {
+    
+    @Value("${services.doctor-service.url}")
+    private String doctorServiceUrl;
+    
+    @Bean
+    public WebClient doctorServiceClient(WebClient.Builder builder) {
+        return builder
+                .baseUrl(doctorServiceUrl)
+                .build();
+    }
+}
@@ -4,18 +4,42 @@ import com.healthapp.common.event.BaseEvent;
 import com.healthapp.common.event.KafkaTopics;
 import com.healthapp.search.model.DoctorDocument;
 import com.healthapp.search.service.DoctorSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Kafka consumer for doctor events to keep search index in sync.
+ * <p>
+ * Events are consumed in batches of one poll. Events update only the fields they carry,
+ * so denormalized fields written by the reindex (specializations, clinics, location)
+ * survive. Within a batch the events of one doctor are merged into a single update and
+ * counter increments are summed; all resulting writes go to Elasticsearch as one bulk
+ * request, and offsets are committed only after the bulk completes. Poison events (ones that
+ * cannot be parsed, or that Elasticsearch rejects with a 4xx) are sent to
+ * {@link KafkaTopics#DOCTOR_EVENTS_DLT} once the bulk has completed, so a retried batch does not
+ * dead-letter the same records twice. If Elasticsearch is unavailable the batch fails and is
+ * retried until it applies; nothing is dead-lettered for that.
  * Disabled in test profile to avoid requiring Kafka and Elasticsearch during tests.
  */
 @Slf4j
@@ -24,129 +48,224 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class DoctorEventConsumer {
     
+    /**
+     * Listener container ID, used to pause consumption while a reindex swaps the alias.
+     */
+    public static final String LISTENER_ID = "doctor-events";
+    
+    private static final List<String> COUNTER_FIELDS = List.of("profileViews", "totalConsultations");
+    
     private final DoctorSearchService searchService;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.search.indexing.bulk-timeout-seconds:30}")
+    private long bulkTimeoutSeconds;
+    
+    private Counter receivedCounter;
+    private Counter coalescedCounter;
+    private Counter appliedCounter;
+    private Counter deadLetteredCounter;
+    private Timer batchTimer;
+    private Timer eventLagTimer;
+    private DistributionSummary batchSizeSummary;
     
-    @KafkaListener(topics = KafkaTopics.DOCTOR_EVENTS, groupId = "search-service")
-    public void handleDoctorEvent(BaseEvent event) {
-        log.info("Received doctor event: {} for {}", event.getEventType(), event.getAggregateId());
+    @PostConstruct
+    void registerMetrics() {
+        receivedCounter = meterRegistry.counter("search.doctor.events.received");
+        coalescedCounter = meterRegistry.counter("search.doctor.events.coalesced");
+        appliedCounter = meterRegistry.counter("search.doctor.events.applied");
+        deadLetteredCounter = meterRegistry.counter("search.doctor.events.dead.lettered");
+        batchTimer = Timer.builder("search.doctor.events.batch.duration")
+                .register(meterRegistry);
+        eventLagTimer = Timer.builder("search.doctor.events.lag")
+                .description("Time from event creation to being applied to the index")
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("search.doctor.events.batch.size")
+                .register(meterRegistry);
+    }
+    
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = KafkaTopics.DOCTOR_EVENTS,
+            groupId = "search-service",
+            containerFactory = "doctorEventBatchListenerFactory"
+    )
+    public void handleDoctorEvents(List<ConsumerRecord<String, BaseEvent>> records) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        receivedCounter.increment(records.size());
+        batchSizeSummary.record(records.size());
+        
+        Batch batch = coalesce(records);
+        coalescedCounter.increment(batch.coalesced());
+        Map<String, PendingDoctor> pending = batch.pending();
+        
+        // A failure of the whole request propagates so the batch is retried and its offsets are not committed
+        Map<String, String> failures = apply(batch, null);
         
-        try {
-            switch (event.getEventType()) {
-                case "DOCTOR_CREATED":
-                    handleDoctorCreated(event);
-                    break;
-                case "DOCTOR_UPDATED":
-                    handleDoctorUpdated(event);
-                    break;
-                case "DOCTOR_VERIFIED":
-                    handleDoctorVerified(event);
-                    break;
-                case "DOCTOR_AVAILABILITY_CHANGED":
-                    handleDoctorAvailabilityChanged(event);
-                    break;
-                case "DOCTOR_DELETED":
-                    handleDoctorDeleted(event);
-                    break;
-                default:
-                    log.warn("Unknown event type: {}", event.getEventType());
+        batch.parseFailures().forEach(failure -> deadLetter(failure.record(), failure.cause()));
+        
+        Instant now = Instant.now();
+        pending.forEach((doctorId, doctor) -> {
+            String failure = failures != null ? failures.get(doctorId) : null;
+            for (ConsumerRecord<String, BaseEvent> record : doctor.records) {
+                if (failure != null) {
+                    log.error("Failed to apply doctor event for {}: {}", doctorId, failure);
+                    deadLetter(record, new IllegalStateException(failure));
+                } else {
+                    appliedCounter.increment();
+                    Instant eventTime = record.value().getEventTime();
+                    if (eventTime != null) {
+                        eventLagTimer.record(Duration.between(eventTime, now));
+                    }
+                }
             }
-        } catch (Exception e) {
-            log.error("Error processing doctor event: {}", event.getEventType(), e);
-            // In production, would send to dead letter queue
+        });
+        
+        sample.stop(batchTimer);
+        log.debug("Processed {} doctor events for {} doctors", records.size(), pending.size());
+    }
+    
+    /**
+     * Applies already consumed events to the given index, which is not yet behind the alias,
+     * so a reindex can catch its new index up with the events it would otherwise miss. Poison
+     * records are skipped here; the listener dead-letters them when it consumes them.
+     */
+    public void replay(List<ConsumerRecord<String, BaseEvent>> records, String index) {
+        Map<String, String> failures = apply(coalesce(records), index);
+        if (failures != null && !failures.isEmpty()) {
+            log.warn("Replay into {} skipped {} doctors rejected by Elasticsearch", index, failures.size());
         }
     }
     
-    private void handleDoctorCreated(BaseEvent event) {
-        Map<String, Object> payload = event.getPayload();
-        
-        DoctorDocument document = DoctorDocument.builder()
-                .id(getString(payload, "doctorId"))
-                .userId(getString(payload, "userId"))
-                .fullName(getString(payload, "name"))
-                .isVerified(getBoolean(payload, "isVerified"))
-                .isAcceptingPatients(getBoolean(payload, "isAcceptingPatients"))
-                .rating(getDouble(payload, "rating"))
-                .consultationFee(getBigDecimal(payload, "consultationFee"))
-                .createdAt(Instant.now())
-                .updatedAt(Instant.now())
-                .build();
-        
-        searchService.indexDoctor(document)
-                .doOnSuccess(doc -> log.info("Indexed new doctor: {}", doc.getId()))
-                .doOnError(e -> log.error("Failed to index doctor: {}", event.getAggregateId(), e))
-                .subscribe();
+    /**
+     * Merges a poll into one pending write per doctor. Records of one doctor share a
+     * partition, so poll order is event order.
+     */
+    private Batch coalesce(List<ConsumerRecord<String, BaseEvent>> records) {
+        Map<String, PendingDoctor> pending = new LinkedHashMap<>();
+        List<ParseFailure> parseFailures = new ArrayList<>();
+        int coalesced = 0;
+        for (ConsumerRecord<String, BaseEvent> record : records) {
+            BaseEvent event = record.value();
+            if (event == null) {
+                parseFailures.add(new ParseFailure(record,
+                        new IllegalArgumentException("Doctor event could not be deserialized")));
+                continue;
+            }
+            PendingDoctor doctor = pending.computeIfAbsent(event.getAggregateId(), id -> new PendingDoctor());
+            try {
+                switch (event.getEventType()) {
+                    case "DOCTOR_CREATED":
+                    case "DOCTOR_UPDATED":
+                    case "DOCTOR_VERIFIED":
+                    case "DOCTOR_AVAILABILITY_CHANGED":
+                        doctor.updates.add(toDocument(event));
+                        break;
+                    case "DOCTOR_COUNTERS_INCREMENTED":
+                        addIncrements(doctor.increments, event.getPayload());
+                        break;
+                    case "DOCTOR_DELETED":
+                        doctor.deleted = true;
+                        doctor.updates.clear();
+                        doctor.increments.clear();
+                        break;
+                    default:
+                        log.warn("Unknown event type: {}", event.getEventType());
+                        continue;
+                }
+            } catch (Exception e) {
+                log.error("Error processing doctor event: {}", event.getEventType(), e);
+                parseFailures.add(new ParseFailure(record, e));
+                continue;
+            }
+            if (!doctor.records.isEmpty()) {
+                coalesced++;
+            }
+            doctor.records.add(record);
+        }
+        return new Batch(pending, parseFailures, coalesced);
     }
     
-    private void handleDoctorUpdated(BaseEvent event) {
-        Map<String, Object> payload = event.getPayload();
-        String doctorId = getString(payload, "doctorId");
-        
-        // In a real implementation, we'd fetch the full doctor data from doctor-service
-        // For now, we'll update with the available data
-        DoctorDocument document = DoctorDocument.builder()
-                .id(doctorId)
-                .userId(getString(payload, "userId"))
-                .fullName(getString(payload, "name"))
-                .isVerified(getBoolean(payload, "isVerified"))
-                .isAcceptingPatients(getBoolean(payload, "isAcceptingPatients"))
-                .rating(getDouble(payload, "rating"))
-                .consultationFee(getBigDecimal(payload, "consultationFee"))
-                .updatedAt(Instant.now())
-                .build();
+    /**
+     * Sends a coalesced batch as one bulk, to the alias when {@code index} is null.
+     */
+    private Map<String, String> apply(Batch batch, String index) {
+        List<DoctorDocument> updates = new ArrayList<>();
+        Map<String, Map<String, Long>> increments = new HashMap<>();
+        List<String> deletes = new ArrayList<>();
+        batch.pending().forEach((doctorId, doctor) -> {
+            if (doctor.deleted) {
+                deletes.add(doctorId);
+            }
+            updates.addAll(doctor.updates);
+            if (!doctor.increments.isEmpty()) {
+                increments.put(doctorId, doctor.increments);
+            }
+        });
         
-        searchService.updateDoctor(document)
-                .doOnSuccess(doc -> log.info("Updated doctor index: {}", doc.getId()))
-                .doOnError(e -> log.error("Failed to update doctor index: {}", doctorId, e))
-                .subscribe();
+        Mono<Map<String, String>> bulk = index != null
+                ? searchService.applyBulk(index, updates, increments, deletes)
+                : searchService.applyBulk(updates, increments, deletes);
+        return bulk.block(Duration.ofSeconds(bulkTimeoutSeconds));
     }
     
-    private void handleDoctorVerified(BaseEvent event) {
-        Map<String, Object> payload = event.getPayload();
-        String doctorId = getString(payload, "doctorId");
-        
-        DoctorDocument document = DoctorDocument.builder()
-                .id(doctorId)
-                .userId(getString(payload, "userId"))
-                .fullName(getString(payload, "name"))
-                .isVerified(true)
-                .isAcceptingPatients(getBoolean(payload, "isAcceptingPatients"))
-                .rating(getDouble(payload, "rating"))
-                .consultationFee(getBigDecimal(payload, "consultationFee"))
-                .updatedAt(Instant.now())
-                .build();
-        
-        searchService.updateDoctor(document)
-                .doOnSuccess(doc -> log.info("Updated doctor verification status: {}", doc.getId()))
-                .subscribe();
+    /**
+     * Sums counter deltas such as {@code profileViews} so a batch applies one increment per doctor.
+     */
+    private void addIncrements(Map<String, Long> increments, Map<String, Object> payload) {
+        for (String field : COUNTER_FIELDS) {
+            Object delta = payload.get(field);
+            if (delta instanceof Number number) {
+                increments.merge(field, number.longValue(), Long::sum);
+            } else if (delta != null) {
+                increments.merge(field, Long.parseLong(delta.toString()), Long::sum);
+            }
+        }
+    }
+    
+    private void deadLetter(ConsumerRecord<String, BaseEvent> record, Exception cause) {
+        deadLetteredCounter.increment();
+        deadLetterRecoverer.accept(record, cause);
     }
     
-    private void handleDoctorAvailabilityChanged(BaseEvent event) {
+    /**
+     * Builds the partial document carried by a create, update, verification or
+     * availability event. Fields the event does not carry stay null and are left
+     * untouched in the index.
+     */
+    private DoctorDocument toDocument(BaseEvent event) {
         Map<String, Object> payload = event.getPayload();
-        String doctorId = getString(payload, "doctorId");
+        boolean created = "DOCTOR_CREATED".equals(event.getEventType());
+        boolean verified = "DOCTOR_VERIFIED".equals(event.getEventType());
         
-        DoctorDocument document = DoctorDocument.builder()
-                .id(doctorId)
+        return DoctorDocument.builder()
+                .id(getString(payload, "doctorId"))
                 .userId(getString(payload, "userId"))
                 .fullName(getString(payload, "name"))
-                .isVerified(getBoolean(payload, "isVerified"))
+                .isVerified(verified ? Boolean.TRUE : getBoolean(payload, "isVerified"))
                 .isAcceptingPatients(getBoolean(payload, "isAcceptingPatients"))
                 .rating(getDouble(payload, "rating"))
                 .consultationFee(getBigDecimal(payload, "consultationFee"))
+                .createdAt(created ? Instant.now() : null)
                 .updatedAt(Instant.now())
                 .build();
-        
-        searchService.updateDoctor(document)
-                .doOnSuccess(doc -> log.info("Updated doctor availability: {}", doc.getId()))
-                .subscribe();
     }
     
-    private void handleDoctorDeleted(BaseEvent event) {
-        String doctorId = event.getAggregateId();
-        
-        searchService.deleteDoctor(doctorId)
-                .doOnSuccess(v -> log.info("Deleted doctor from index: {}", doctorId))
-                .doOnError(e -> log.error("Failed to delete doctor from index: {}", doctorId, e))
-                .subscribe();
+    /**
+     * Index writes collected for one doctor within a batch.
+     */
+    private static class PendingDoctor {
+        private final List<ConsumerRecord<String, BaseEvent>> records = new ArrayList<>();
+        private final List<DoctorDocument> updates = new ArrayList<>();
+        private final Map<String, Long> increments = new HashMap<>();
+        private boolean deleted;
+    }
+    
+    private record Batch(Map<String, PendingDoctor> pending, List<ParseFailure> parseFailures, int coalesced) {
+    }
+    
+    private record ParseFailure(ConsumerRecord<String, BaseEvent> record, Exception cause) {
     }
     
     // Helper methods for type-safe payload extraction
@@ -0,0 +1,162 @@
+package com.healthapp.search.consumer;
+
+import com.healthapp.common.event.BaseEvent;
+import com.healthapp.common.event.KafkaTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replays doctor events into an index that is not yet behind the alias.
+ * <p>
+ * The live listener writes through the alias, so while a reindex builds a new index every
+ * event it applies lands in the old one. The reindex records the listener group's committed
+ * offsets before it starts exporting, and before swapping the alias replays everything from
+ * there into the new index with a separate, non-committing consumer, so no update is lost.
+ * Methods block and must be called off the event loop.
+ */
+@Slf4j
+@Component
+@Profile("!test")
+@RequiredArgsConstructor
+public class DoctorEventReplayer {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final DoctorEventConsumer doctorEventConsumer;
+
+    @Value("${spring.kafka.consumer.group-id:search-service}")
+    private String groupId;
+
+    /**
+     * Offsets the listener will consume next, per partition of the doctor events topic.
+     */
+    public Map<TopicPartition, Long> committedOffsets() {
+        try (Consumer<String, Object> consumer = createConsumer()) {
+            return committedOffsets(consumer);
+        }
+    }
+
+    /**
+     * Applies the events from {@code from} up to the listener's current committed offsets
+     * to {@code index}.
+     *
+     * @return the offsets replayed up to, to continue from in a later call
+     */
+    public Map<TopicPartition, Long> replay(String index, Map<TopicPartition, Long> from) {
+        try (Consumer<String, Object> consumer = createConsumer()) {
+            Map<TopicPartition, Long> to = committedOffsets(consumer);
+            Set<TopicPartition> behind = to.keySet().stream()
+                    .filter(partition -> from.getOrDefault(partition, 0L) < to.get(partition))
+                    .collect(Collectors.toSet());
+            if (behind.isEmpty()) {
+                return to;
+            }
+
+            consumer.assign(behind);
+            behind.forEach(partition -> consumer.seek(partition, from.getOrDefault(partition, 0L)));
+            long replayed = 0;
+            while (behind.stream().anyMatch(partition -> consumer.position(partition) < to.get(partition))) {
+                ConsumerRecords<String, Object> polled = consumer.poll(POLL_TIMEOUT);
+                List<ConsumerRecord<String, BaseEvent>> records = new ArrayList<>(polled.count());
+                for (ConsumerRecord<String, Object> record : polled) {
+                    if (record.offset() < to.get(new TopicPartition(record.topic(), record.partition()))) {
+                        records.add(asEvent(record));
+                    }
+                }
+                if (!records.isEmpty()) {
+                    doctorEventConsumer.replay(records, index);
+                    replayed += records.size();
+                }
+            }
+            log.info("Replayed {} doctor events into {}", replayed, index);
+            return to;
+        }
+    }
+
+    /**
+     * Pauses the live listener and waits until it has committed its last batch and stopped polling.
+     */
+    public void pauseListener(Duration timeout) {
+        MessageListenerContainer container = listenerContainer();
+        container.pause();
+        Instant deadline = Instant.now().plus(timeout);
+        while (!container.isContainerPaused()) {
+            if (Instant.now().isAfter(deadline)) {
+                container.resume();
+                throw new IllegalStateException("Doctor event listener did not pause within " + timeout);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                container.resume();
+                throw new IllegalStateException("Interrupted while pausing the doctor event listener", e);
+            }
+        }
+        log.info("Paused doctor event listener");
+    }
+
+    public void resumeListener() {
+        listenerContainer().resume();
+        log.info("Resumed doctor event listener");
+    }
+
+    private MessageListenerContainer listenerContainer() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(DoctorEventConsumer.LISTENER_ID);
+        if (container == null) {
+            throw new IllegalStateException("No listener container " + DoctorEventConsumer.LISTENER_ID);
+        }
+        return container;
+    }
+
+    /**
+     * Uses the listener's group ID only to read its committed offsets; the consumer is
+     * assigned partitions directly and never commits.
+     */
+    private Consumer<String, Object> createConsumer() {
+        return consumerFactory.createConsumer(groupId, "-replay");
+    }
+
+    private static Map<TopicPartition, Long> committedOffsets(Consumer<String, Object> consumer) {
+        Set<TopicPartition> partitions = consumer.partitionsFor(KafkaTopics.DOCTOR_EVENTS).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .collect(Collectors.toSet());
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(partitions);
+        // Partitions the group has never committed are read from the start, as the listener does
+        Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            offsets.put(partition, offset != null ? offset.offset() : beginning.get(partition));
+        }
+        return offsets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConsumerRecord<String, BaseEvent> asEvent(ConsumerRecord<String, Object> record) {
+        // Values are BaseEvent, or null when they could not be deserialized
+        return (ConsumerRecord<String, BaseEvent>) (ConsumerRecord<?, ?>) record;
+    }
+}
@@ -0,0 +1,42 @@
+package com.healthapp.search.controller;
+
+import com.healthapp.common.dto.ApiResponse;
+import com.healthapp.search.model.dto.ReindexStatus;
+import com.healthapp.search.service.DoctorReindexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admin endpoints for rebuilding the doctor search index.
+ * Disabled in test profile to avoid requiring Elasticsearch during tests.
+ */
+@RestController
+@Profile("!test")
+@RequestMapping("/api/v1/search/admin/reindex")
+@RequiredArgsConstructor
+public class ReindexController {
+    
+    private final DoctorReindexService reindexService;
+    
+    /**
+     * Starts a full reindex into a new versioned index; returns immediately.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<ApiResponse<ReindexStatus>> startReindex() {
+        return reindexService.startReindex()
+                .map(status -> ApiResponse.success(status, "Reindex started"));
+    }
+    
+    /**
+     * Progress of the running reindex, or the result of the last one.
+     */
+    @GetMapping
+    public Mono<ApiResponse<ReindexStatus>> getStatus() {
+        return Mono.fromSupplier(reindexService::status)
+                .map(ApiResponse::success);
+    }
+}
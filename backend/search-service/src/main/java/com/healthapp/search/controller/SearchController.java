@@ -7,7 +7,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -50,7 +52,8 @@ public class SearchController {
             @RequestParam(required = false) Boolean verifiedOnly,
             @RequestParam(defaultValue = "RELEVANCE") DoctorSearchRequest.SortField sortBy,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
         
         DoctorSearchRequest request = DoctorSearchRequest.builder()
                 .query(query)
@@ -61,12 +64,24 @@ public class SearchController {
                 .sortBy(sortBy)
                 .page(page)
                 .size(size)
+                .cursor(cursor)
                 .build();
         
         return searchService.search(request)
                 .map(ApiResponse::success);
     }
     
+    /**
+     * Streams every doctor matching the filters as NDJSON, in the requested sort order.
+     * Paging and size in the request are ignored.
+     */
+    @PostMapping(value = "/doctors/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DoctorSearchResult> exportDoctors(@Valid @RequestBody DoctorSearchRequest request) {
+        log.info("Doctor search export: query={}, city={}, specialization={}",
+                request.getQuery(), request.getCity(), request.getSpecialization());
+        return searchService.export(request);
+    }
+    
     /**
      * Autocomplete suggestions for doctor search.
      */
@@ -3,6 +3,7 @@ package com.healthapp.search.model;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.*;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -129,6 +130,10 @@ public class DoctorDocument {
     @Field(type = FieldType.Double)
     private Double popularityScore;
     
+    // Type-ahead inputs (name, specializations, cities); only set while accepting patients
+    @CompletionField
+    private Completion suggest;
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,78 @@
+package com.healthapp.search.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Doctor profile as streamed by doctor-service's export endpoint.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DoctorExport {
+    
+    private String id;
+    private String userId;
+    private String fullName;
+    private String profilePictureUrl;
+    private String registrationNumber;
+    private Integer experienceYears;
+    private String bio;
+    private BigDecimal consultationFee;
+    private BigDecimal videoConsultationFee;
+    private BigDecimal rating;
+    private Integer reviewCount;
+    private Boolean isVerified;
+    private Boolean isAcceptingPatients;
+    private List<Specialization> specializations;
+    private List<Qualification> qualifications;
+    private List<Language> languages;
+    private List<Clinic> clinics;
+    private Instant createdAt;
+    private Instant updatedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Specialization {
+        private String id;
+        private String name;
+        private Boolean isPrimary;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Qualification {
+        private String degree;
+        private String institution;
+        private Integer yearOfCompletion;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Language {
+        private String name;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Clinic {
+        private String id;
+        private String name;
+        private String fullAddress;
+        private String city;
+        private String state;
+        private String postalCode;
+        private Double latitude;
+        private Double longitude;
+        private Boolean isPrimary;
+    }
+}
@@ -142,6 +142,11 @@ public class DoctorSearchRequest {
     @Builder.Default
     private Integer size = 20;
     
+    /**
+     * Cursor from a previous response's {@code nextCursor}; when set, {@code page} is ignored.
+     */
+    private String cursor;
+    
     public enum SortField {
         RELEVANCE,
         RATING,
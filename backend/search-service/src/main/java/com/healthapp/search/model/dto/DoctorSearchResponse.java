@@ -42,6 +42,11 @@ public class DoctorSearchResponse {
      */
     private Integer totalPages;
     
+    /**
+     * Cursor for the next page; null on the last page.
+     */
+    private String nextCursor;
+    
     /**
      * Search took time in milliseconds.
      */
@@ -0,0 +1,39 @@
+package com.healthapp.search.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of a full reindex run.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReindexStatus {
+    
+    private State state;
+    
+    /**
+     * Versioned index being built.
+     */
+    private String index;
+    
+    private long docsIndexed;
+    private long docsFailed;
+    private double docsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,69 @@
+package com.healthapp.search.model.dto;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Position in a doctor search walked with {@code search_after}: the sort values of the
+ * last hit returned and, once opened, the point-in-time the walk reads from.
+ * Encoded as an opaque URL-safe token.
+ */
+public record SearchCursor(String pitId, List<FieldValue> searchAfter) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public String encode() {
+        List<Object> values = new ArrayList<>();
+        for (FieldValue value : searchAfter) {
+            values.add(value.isNull() ? null : value._get());
+        }
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("pit", pitId);
+        raw.put("after", values);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(raw));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            Map<String, Object> raw = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor),
+                    new TypeReference<Map<String, Object>>() {});
+            List<FieldValue> searchAfter = new ArrayList<>();
+            for (Object value : (List<?>) raw.get("after")) {
+                searchAfter.add(toFieldValue(value));
+            }
+            return new SearchCursor((String) raw.get("pit"), searchAfter);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static FieldValue toFieldValue(Object value) {
+        if (value == null) {
+            return FieldValue.NULL;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return FieldValue.of(((Number) value).doubleValue());
+        }
+        if (value instanceof Number number) {
+            return FieldValue.of(number.longValue());
+        }
+        if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+}
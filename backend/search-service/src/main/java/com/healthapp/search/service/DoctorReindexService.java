@@ -0,0 +1,450 @@
+package com.healthapp.search.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.healthapp.search.consumer.DoctorEventReplayer;
+import com.healthapp.search.model.DoctorDocument;
+import com.healthapp.search.model.dto.DoctorExport;
+import com.healthapp.search.model.dto.ReindexStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds the doctor search index from doctor-service.
+ * <p>
+ * A run creates a new versioned index ({@code doctors_v<timestamp>}) with the current
+ * settings and mapping, streams all doctors from doctor-service's NDJSON export and
+ * writes them with parallel {@code _bulk} requests while refresh and replicas are off,
+ * then restores them and atomically repoints the {@code doctors} alias. The previously
+ * aliased index is kept for rollback; older versions are deleted.
+ * <p>
+ * Kafka updates keep flowing to the old index during the run. To keep them, the run records
+ * the listener's committed offsets before exporting and, once the documents are loaded,
+ * replays every event since then into the new index: first while the listener keeps going,
+ * then with the listener paused for the remainder, and swaps the alias before resuming it.
+ * Field updates are replayed in order, so the newest value wins; counter increments that
+ * were already counted in the exported snapshot are added again, so view and consultation
+ * counts may be slightly high after a reindex.
+ */
+@Slf4j
+@Service
+@Profile("!test")
+@RequiredArgsConstructor
+public class DoctorReindexService {
+
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final ElasticsearchAsyncClient elasticsearchClient;
+    private final DoctorSearchService doctorSearchService;
+    private final WebClient doctorServiceClient;
+    private final DoctorEventReplayer eventReplayer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.reindex.alias:doctors}")
+    private String alias;
+
+    @Value("${app.search.reindex.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.search.reindex.bulk-size:1000}")
+    private int bulkSize;
+
+    @Value("${app.search.reindex.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.search.reindex.replicas:1}")
+    private int replicas;
+
+    @Value("${app.search.reindex.bulk-timeout-seconds:60}")
+    private long bulkTimeoutSeconds;
+
+    @Value("${app.search.reindex.pause-timeout-seconds:60}")
+    private long pauseTimeoutSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong docsIndexed = new AtomicLong();
+    private final AtomicLong docsFailed = new AtomicLong();
+    private final AtomicReference<ReindexStatus> lastStatus = new AtomicReference<>(
+            ReindexStatus.builder().state(ReindexStatus.State.IDLE).build());
+
+    private Counter indexedCounter;
+    private Counter failedCounter;
+    private Timer bulkTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        indexedCounter = meterRegistry.counter("search.reindex.docs.indexed");
+        failedCounter = meterRegistry.counter("search.reindex.docs.failed");
+        bulkTimer = Timer.builder("search.reindex.bulk.duration")
+                .register(meterRegistry);
+        Gauge.builder("search.reindex.progress.docs", docsIndexed, AtomicLong::get)
+                .description("Documents written by the current or last reindex run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a reindex in the background and returns its initial status.
+     */
+    public Mono<ReindexStatus> startReindex() {
+        if (!running.compareAndSet(false, true)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "A reindex is already running"));
+        }
+
+        Instant startedAt = Instant.now();
+        String index = alias + "_v" + VERSION_FORMAT.format(startedAt);
+        docsIndexed.set(0);
+        docsFailed.set(0);
+        lastStatus.set(ReindexStatus.builder()
+                .state(ReindexStatus.State.RUNNING)
+                .index(index)
+                .startedAt(startedAt)
+                .build());
+
+        createIndex(index)
+                .then(Mono.fromCallable(eventReplayer::committedOffsets).subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(offsets -> loadDocuments(index, startedAt)
+                        .then(Mono.defer(() -> finishIndex(index)))
+                        .then(Mono.defer(() -> catchUpAndSwap(index, offsets))))
+                .doOnSuccess(v -> complete(ReindexStatus.State.COMPLETED, null))
+                .doFinally(signal -> running.set(false))
+                .subscribe(null, error -> {
+                    log.error("Reindex into {} failed", index, error);
+                    complete(ReindexStatus.State.FAILED, error.getMessage());
+                });
+
+        log.info("Started reindex into {}", index);
+        return Mono.just(status());
+    }
+
+    /**
+     * Current progress, or the outcome of the last run.
+     */
+    public ReindexStatus status() {
+        ReindexStatus status = lastStatus.get();
+        Instant end = status.getFinishedAt() != null ? status.getFinishedAt() : Instant.now();
+        return status.toBuilder()
+                .docsIndexed(docsIndexed.get())
+                .docsFailed(docsFailed.get())
+                .docsPerSecond(status.getStartedAt() != null
+                        ? docsPerSecond(docsIndexed.get(), status.getStartedAt(), end) : 0)
+                .build();
+    }
+
+    private void complete(ReindexStatus.State state, String error) {
+        lastStatus.updateAndGet(status -> status.toBuilder()
+                .state(state)
+                .finishedAt(Instant.now())
+                .error(error)
+                .build());
+        ReindexStatus finished = status();
+        log.info("Reindex into {} {}: {} indexed, {} failed, {} docs/s",
+                finished.getIndex(), state, finished.getDocsIndexed(), finished.getDocsFailed(),
+                String.format("%.0f", finished.getDocsPerSecond()));
+    }
+
+    private Mono<Void> createIndex(String index) {
+        return Mono.fromCallable(() -> {
+                    IndexSettings settings = IndexSettings.of(s -> s
+                            .withJson(resource("elasticsearch/doctor-settings.json"))
+                            .numberOfReplicas("0")
+                            .refreshInterval(t -> t.time("-1")));
+                    TypeMapping mapping = TypeMapping.of(m -> m
+                            .withJson(resource("elasticsearch/doctor-mapping.json")));
+                    return elasticsearchClient.indices().create(c -> c
+                            .index(index)
+                            .settings(settings)
+                            .mappings(mapping));
+                })
+                .flatMap(Mono::fromFuture)
+                .doOnSuccess(r -> log.info("Created index {}", index))
+                .then();
+    }
+
+    private Mono<Void> loadDocuments(String index, Instant startedAt) {
+        AtomicReference<String> lastId = new AtomicReference<>();
+
+        return Flux.defer(() -> exportDoctors(lastId.get()))
+                .doOnNext(doctor -> lastId.set(doctor.getId()))
+                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1)))
+                .map(this::toDocument)
+                .buffer(bulkSize)
+                .flatMap(batch -> bulkIndex(index, batch), parallelism)
+                .doOnNext(written -> {
+                    long total = docsIndexed.addAndGet(written);
+                    if (total / bulkSize != (total - written) / bulkSize) {
+                        log.info("Reindex progress: {} docs, {} docs/s",
+                                total, String.format("%.0f", docsPerSecond(total, startedAt, Instant.now())));
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Replays events consumed since the run started into the new index, then pauses the
+     * listener so nothing reaches the old index between the last replay and the alias swap.
+     */
+    private Mono<Void> catchUpAndSwap(String index, Map<TopicPartition, Long> offsets) {
+        return Mono.fromCallable(() -> eventReplayer.replay(index, offsets))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(caughtUp -> Mono.fromCallable(() -> {
+                                    eventReplayer.pauseListener(Duration.ofSeconds(pauseTimeoutSeconds));
+                                    return eventReplayer.replay(index, caughtUp);
+                                })
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.defer(() -> swapAlias(index)))
+                                .doFinally(signal -> eventReplayer.resumeListener()));
+    }
+
+    private Flux<DoctorExport> exportDoctors(String afterId) {
+        return doctorServiceClient.get()
+                .uri(uri -> uri.path("/api/v1/doctors/export")
+                        .queryParam("pageSize", pageSize)
+                        .queryParamIfPresent("after", Optional.ofNullable(afterId))
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(DoctorExport.class);
+    }
+
+    /**
+     * Writes one batch with a single {@code _bulk} request.
+     *
+     * @return the number of documents written successfully
+     */
+    private Mono<Long> bulkIndex(String index, List<DoctorDocument> batch) {
+        return Mono.defer(() -> {
+            BulkRequest.Builder builder = new BulkRequest.Builder().index(index);
+            for (DoctorDocument doc : batch) {
+                Document source = doctorSearchService.toSource(doc);
+                builder.operations(op -> op.index(i -> i.id(doc.getId()).document(source)));
+            }
+            // Builders are single-use, so build once and resend the same request on retry
+            BulkRequest request = builder.build();
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.fromFuture(() -> elasticsearchClient.bulk(request))
+                    .timeout(Duration.ofSeconds(bulkTimeoutSeconds))
+                    .retryWhen(Retry.backoff(3, Duration.ofMillis(500))
+                            .filter(error -> !(error instanceof ElasticsearchException)))
+                    .map(response -> countWritten(response, batch.size()))
+                    .doFinally(signal -> sample.stop(bulkTimer));
+        });
+    }
+
+    private long countWritten(BulkResponse response, int batchSize) {
+        long failed = 0;
+        if (response.errors()) {
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null) {
+                    failed++;
+                    log.warn("Failed to index doctor {}: {}", item.id(), item.error().reason());
+                }
+            }
+        }
+        docsFailed.addAndGet(failed);
+        failedCounter.increment(failed);
+        indexedCounter.increment(batchSize - failed);
+        return batchSize - failed;
+    }
+
+    private Mono<Void> finishIndex(String index) {
+        return Mono.fromFuture(() -> elasticsearchClient.indices().putSettings(p -> p
+                        .index(index)
+                        .settings(s -> s
+                                .numberOfReplicas(String.valueOf(replicas))
+                                .refreshInterval(t -> t.time("1s")))))
+                .then(Mono.fromFuture(() -> elasticsearchClient.indices().refresh(r -> r.index(index))))
+                .then();
+    }
+
+    /**
+     * Points the alias at the new index in one atomic request. A concrete index that
+     * still carries the alias name (created before versioned indices) is removed in the
+     * same request.
+     */
+    private Mono<Void> swapAlias(String index) {
+        Mono<Set<String>> aliased = Mono.fromFuture(() -> elasticsearchClient.indices().getAlias(g -> g.name(alias)))
+                .map(response -> (Set<String>) new LinkedHashSet<>(response.result().keySet()))
+                .onErrorResume(ElasticsearchException.class, e -> Mono.just(new LinkedHashSet<>()));
+        Mono<Boolean> exists = Mono.fromFuture(() -> elasticsearchClient.indices().exists(e -> e.index(alias)))
+                .map(response -> response.value());
+
+        return Mono.zip(aliased, exists)
+                .flatMap(tuple -> {
+                    Set<String> previous = tuple.getT1();
+                    boolean concreteIndex = tuple.getT2() && previous.isEmpty();
+
+                    List<Action> actions = new ArrayList<>();
+                    actions.add(Action.of(a -> a.add(add -> add.index(index).alias(alias))));
+                    for (String old : previous) {
+                        actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(alias))));
+                    }
+                    if (concreteIndex) {
+                        actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+                    }
+
+                    return Mono.fromFuture(() -> elasticsearchClient.indices().updateAliases(u -> u.actions(actions)))
+                            .doOnSuccess(r -> log.info("Alias {} now points to {} (was {})", alias, index,
+                                    concreteIndex ? "concrete index " + alias : previous))
+                            .then(deleteOldVersions(index, previous));
+                });
+    }
+
+    private Mono<Void> deleteOldVersions(String current, Set<String> keep) {
+        return Mono.fromFuture(() -> elasticsearchClient.indices().get(g -> g.index(alias + "_v*")))
+                .flatMapMany(response -> Flux.fromIterable(response.result().keySet()))
+                .filter(name -> !name.equals(current) && !keep.contains(name))
+                .sort(Comparator.naturalOrder())
+                .concatMap(name -> Mono.fromFuture(() -> elasticsearchClient.indices().delete(d -> d.index(name)))
+                        .doOnSuccess(r -> log.info("Deleted old index {}", name)))
+                .onErrorResume(error -> {
+                    log.warn("Failed to delete old {} indices", alias, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private DoctorDocument toDocument(DoctorExport doctor) {
+        List<DoctorDocument.SpecializationInfo> specializations = new ArrayList<>();
+        DoctorExport.Specialization primarySpecialization = null;
+        if (doctor.getSpecializations() != null) {
+            for (DoctorExport.Specialization spec : doctor.getSpecializations()) {
+                specializations.add(DoctorDocument.SpecializationInfo.builder()
+                        .id(spec.getId())
+                        .name(spec.getName())
+                        .isPrimary(spec.getIsPrimary())
+                        .build());
+                if (primarySpecialization == null || Boolean.TRUE.equals(spec.getIsPrimary())) {
+                    primarySpecialization = spec;
+                }
+            }
+        }
+
+        List<DoctorDocument.ClinicInfo> clinics = new ArrayList<>();
+        Set<String> cities = new LinkedHashSet<>();
+        DoctorDocument.GeoLocation primaryLocation = null;
+        if (doctor.getClinics() != null) {
+            // Primary clinic first so that its city and location lead
+            List<DoctorExport.Clinic> ordered = new ArrayList<>(doctor.getClinics());
+            ordered.sort(Comparator.comparing(c -> !Boolean.TRUE.equals(c.getIsPrimary())));
+            for (DoctorExport.Clinic clinic : ordered) {
+                DoctorDocument.GeoLocation location = clinic.getLatitude() != null && clinic.getLongitude() != null
+                        ? new DoctorDocument.GeoLocation(clinic.getLatitude(), clinic.getLongitude())
+                        : null;
+                clinics.add(DoctorDocument.ClinicInfo.builder()
+                        .id(clinic.getId())
+                        .name(clinic.getName())
+                        .address(clinic.getFullAddress())
+                        .city(clinic.getCity())
+                        .state(clinic.getState())
+                        .pincode(clinic.getPostalCode())
+                        .location(location)
+                        .isPrimary(clinic.getIsPrimary())
+                        .build());
+                if (clinic.getCity() != null) {
+                    cities.add(clinic.getCity());
+                }
+                if (primaryLocation == null) {
+                    primaryLocation = location;
+                }
+            }
+        }
+
+        DoctorDocument document = DoctorDocument.builder()
+                .id(doctor.getId())
+                .userId(doctor.getUserId())
+                .fullName(doctor.getFullName())
+                .bio(doctor.getBio())
+                .profilePhotoUrl(doctor.getProfilePictureUrl())
+                .specializations(specializations)
+                .primarySpecialization(primarySpecialization != null ? primarySpecialization.getName() : null)
+                .primarySpecializationId(primarySpecialization != null ? primarySpecialization.getId() : null)
+                .qualifications(doctor.getQualifications() != null
+                        ? doctor.getQualifications().stream()
+                                .map(q -> DoctorDocument.QualificationInfo.builder()
+                                        .degree(q.getDegree())
+                                        .institution(q.getInstitution())
+                                        .year(q.getYearOfCompletion())
+                                        .build())
+                                .toList()
+                        : null)
+                .languages(doctor.getLanguages() != null
+                        ? doctor.getLanguages().stream().map(DoctorExport.Language::getName).toList()
+                        : null)
+                .clinics(clinics)
+                .cities(new ArrayList<>(cities))
+                .primaryLocation(primaryLocation)
+                .experienceYears(doctor.getExperienceYears())
+                .registrationNumber(doctor.getRegistrationNumber())
+                .consultationFee(doctor.getConsultationFee())
+                .videoConsultationFee(doctor.getVideoConsultationFee())
+                .rating(doctor.getRating() != null ? doctor.getRating().doubleValue() : null)
+                .totalReviews(doctor.getReviewCount())
+                .isVerified(doctor.getIsVerified())
+                .isAcceptingPatients(doctor.getIsAcceptingPatients())
+                .offersVideoConsultation(doctor.getVideoConsultationFee() != null)
+                .offersInPersonConsultation(!clinics.isEmpty())
+                .createdAt(doctor.getCreatedAt())
+                .updatedAt(doctor.getUpdatedAt())
+                .build();
+        document.setPopularityScore(DoctorSearchService.calculatePopularityScore(document));
+        document.setSuggest(DoctorSearchService.buildSuggest(document));
+        return document;
+    }
+
+    private static InputStream resource(String path) {
+        try {
+            return new ClassPathResource(path).getInputStream();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + path, e);
+        }
+    }
+
+    private static double docsPerSecond(long docs, Instant from, Instant to) {
+        long millis = Math.max(1, Duration.between(from, to).toMillis());
+        return docs * 1000.0 / millis;
+    }
+}
@@ -1,24 +1,51 @@
 package com.healthapp.search.service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.query_dsl.*;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
 import co.elastic.clients.json.JsonData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.healthapp.search.model.DoctorDocument;
 import com.healthapp.search.model.dto.*;
 import com.healthapp.search.repository.DoctorSearchRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -28,19 +55,129 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 @Profile("!test")
-@RequiredArgsConstructor
 public class DoctorSearchService {
     
     private final DoctorSearchRepository doctorSearchRepository;
-    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchAsyncClient elasticsearchClient;
+    private final ElasticsearchAsyncClient backgroundClient;
+    private final SearchExecutor searchExecutor;
+    private final SearchResultCache searchResultCache;
+    private final ReactiveElasticsearchOperations elasticsearchOperations;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.search.suggest.cache-ttl-seconds:30}")
+    private long suggestCacheTtlSeconds;
+    
+    @Value("${app.search.suggest.cache-max-entries:20000}")
+    private long suggestCacheMaxEntries;
+    
+    @Value("${app.search.max-result-window:10000}")
+    private int maxResultWindow;
+    
+    @Value("${app.search.pit-keep-alive:2m}")
+    private String pitKeepAlive;
+    
+    @Value("${app.search.indexing.item-retry-attempts:3}")
+    private int itemRetryAttempts;
+    
+    @Value("${app.search.indexing.retry-interval-ms:1000}")
+    private long itemRetryIntervalMs;
+    
+    @Value("${app.search.export-page-size:1000}")
+    private int exportPageSize;
+    
+    private Cache<String, List<String>> suggestionCache;
     
     private static final String INDEX_NAME = "doctors";
+    private static final String SUGGESTER = "doctor";
+    
+    /**
+     * Merges {@code params.doc} into the stored document, adds {@code params.increments}
+     * to counter fields and recomputes the popularity score and autocomplete inputs the
+     * same way as {@link #calculatePopularityScore(DoctorDocument)} and
+     * {@link #buildSuggest(DoctorDocument)}.
+     */
+    private static final String PARTIAL_UPDATE_SCRIPT = """
+            for (def e : params.doc.entrySet()) { ctx._source[e.getKey()] = e.getValue(); }
+            for (def e : params.increments.entrySet()) {
+              def current = ctx._source[e.getKey()];
+              ctx._source[e.getKey()] = (current == null ? 0 : current) + e.getValue();
+            }
+            def d = ctx._source;
+            double score = 0;
+            if (d.rating != null) { score += d.rating / 5.0 * 40; }
+            if (d.totalReviews != null && d.totalReviews > 0) { score += Math.min(Math.log10(d.totalReviews) * 10, 25); }
+            if (d.totalConsultations != null && d.totalConsultations > 0) { score += Math.min(Math.log10(d.totalConsultations) * 8, 20); }
+            if (d.profileViews != null && d.profileViews > 0) { score += Math.min(Math.log10(d.profileViews) * 4, 10); }
+            if (d.isVerified == true) { score += 5; }
+            d.popularityScore = score;
+            def inputs = new ArrayList();
+            if (d.fullName != null) { inputs.add(d.fullName); }
+            if (d.primarySpecialization != null) { inputs.add(d.primarySpecialization); }
+            if (d.specializations != null) { for (def sp : d.specializations) { if (sp.name != null) { inputs.add(sp.name); } } }
+            if (d.cities != null) { for (def c : d.cities) { inputs.add(c); } }
+            if (d.isAcceptingPatients == true && !inputs.isEmpty()) {
+              d.suggest = ['input': inputs, 'weight': (int) Math.round(score)];
+            } else {
+              d.remove('suggest');
+            }
+            """;
+    
+    /**
+     * Interactive queries go through {@code searchAsyncClient}; bulk writes and export use
+     * the primary client, whose connection pool is separate.
+     */
+    public DoctorSearchService(DoctorSearchRepository doctorSearchRepository,
+                               @Qualifier("searchAsyncClient") ElasticsearchAsyncClient elasticsearchClient,
+                               ElasticsearchAsyncClient backgroundClient,
+                               SearchExecutor searchExecutor,
+                               SearchResultCache searchResultCache,
+                               ReactiveElasticsearchOperations elasticsearchOperations,
+                               MeterRegistry meterRegistry) {
+        this.doctorSearchRepository = doctorSearchRepository;
+        this.elasticsearchClient = elasticsearchClient;
+        this.backgroundClient = backgroundClient;
+        this.searchExecutor = searchExecutor;
+        this.searchResultCache = searchResultCache;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @PostConstruct
+    void init() {
+        suggestionCache = Caffeine.newBuilder()
+                .maximumSize(suggestCacheMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(suggestCacheTtlSeconds))
+                .build();
+    }
     
     /**
      * Performs an advanced doctor search with filters, sorting, and aggregations.
+     * <p>
+     * Offset pages ({@code page}) are limited to the first {@code max-result-window} hits.
+     * Every full page also returns a {@code nextCursor}; following cursors walks the whole
+     * result set with {@code search_after}, reading from a point-in-time opened on the
+     * first cursor request so later pages are not shifted by concurrent index updates.
      */
     public Mono<DoctorSearchResponse> search(DoctorSearchRequest request) {
-        return Mono.fromCallable(() -> executeSearch(request))
+        if (request.getCursor() != null) {
+            // Cursor pages are positional and tied to a point-in-time, so they bypass the result cache
+            return executeCursorSearch(SearchResultCache.canonicalize(request), SearchCursor.decode(request.getCursor()));
+        }
+        return searchResultCache.get(request, this::executeSearch);
+    }
+    
+    private Mono<DoctorSearchResponse> executeSearch(DoctorSearchRequest request) {
+        long startTime = System.currentTimeMillis();
+        if ((long) (request.getPage() + 1) * request.getSize() > maxResultWindow) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Pages beyond " + maxResultWindow + " results must be fetched with nextCursor"));
+        }
+        SearchRequest searchRequest = buildSearchRequest(request, null, null, request.getSize(), true);
+        
+        return searchExecutor.execute("search",
+                        () -> elasticsearchClient.search(searchRequest, DoctorDocument.class))
+                .map(response -> toSearchResponse(response, request, startTime))
                 .doOnSuccess(response -> log.debug(
                         "Search completed: {} results in {}ms",
                         response.getTotalHits(), response.getTookMs()
@@ -48,11 +185,143 @@ public class DoctorSearchService {
                 .doOnError(error -> log.error("Search failed", error));
     }
     
+    private Mono<DoctorSearchResponse> executeCursorSearch(DoctorSearchRequest request, SearchCursor cursor) {
+        long startTime = System.currentTimeMillis();
+        boolean opened = cursor.pitId() == null;
+        Mono<String> pitId = opened ? openPointInTime(elasticsearchClient) : Mono.just(cursor.pitId());
+        
+        return pitId.flatMap(pit -> searchExecutor.execute("search_after",
+                                () -> elasticsearchClient.search(
+                                        buildSearchRequest(request, pit, cursor.searchAfter(), request.getSize(), true),
+                                        DoctorDocument.class))
+                        .onErrorMap(ElasticsearchException.class, this::toCursorError)
+                        // The client never received a cursor for a PIT opened by a failed request
+                        .doOnError(error -> {
+                            if (opened) {
+                                closePointInTime(elasticsearchClient, pit);
+                            }
+                        })
+                        .map(response -> {
+                            DoctorSearchResponse result = toSearchResponse(response, request, startTime);
+                            if (result.getNextCursor() == null) {
+                                closePointInTime(elasticsearchClient, response.pitId() != null ? response.pitId() : pit);
+                            }
+                            return result;
+                        }))
+                .doOnError(error -> log.error("Cursor search failed", error));
+    }
+    
+    /**
+     * Streams every doctor matching the request in its sort order, one
+     * {@code export-page-size} page at a time from a point-in-time, so memory stays
+     * bounded regardless of result size. Page and size in the request are ignored.
+     */
+    public Flux<DoctorSearchResult> export(DoctorSearchRequest request) {
+        DoctorSearchRequest canonical = SearchResultCache.canonicalize(request);
+        AtomicReference<String> pitId = new AtomicReference<>();
+        
+        return openPointInTime(backgroundClient)
+                .doOnNext(pitId::set)
+                .flatMapMany(pit -> exportPage(canonical, pit, null)
+                        .expand(response -> {
+                            List<Hit<DoctorDocument>> hits = response.hits().hits();
+                            if (hits.size() < exportPageSize) {
+                                return Mono.empty();
+                            }
+                            return exportPage(canonical, pitId.get(), hits.get(hits.size() - 1).sort());
+                        }))
+                .doOnNext(response -> {
+                    if (response.pitId() != null) {
+                        pitId.set(response.pitId());
+                    }
+                })
+                .concatMapIterable(response -> response.hits().hits())
+                .map(this::mapHitToResult)
+                .doFinally(signal -> closePointInTime(backgroundClient, pitId.get()));
+    }
+    
+    private Mono<SearchResponse<DoctorDocument>> exportPage(DoctorSearchRequest request, String pitId,
+                                                            List<FieldValue> searchAfter) {
+        return searchExecutor.execute("export",
+                        () -> backgroundClient.search(
+                                buildSearchRequest(request, pitId, searchAfter, exportPageSize, false),
+                                DoctorDocument.class))
+                .onErrorMap(ElasticsearchException.class, this::toCursorError);
+    }
+    
+    private Mono<String> openPointInTime(ElasticsearchAsyncClient client) {
+        return searchExecutor.execute("open_pit",
+                        () -> client.openPointInTime(p -> p
+                                .index(INDEX_NAME)
+                                .keepAlive(k -> k.time(pitKeepAlive))))
+                .map(OpenPointInTimeResponse::id);
+    }
+    
+    private void closePointInTime(ElasticsearchAsyncClient client, String pitId) {
+        if (pitId == null) {
+            return;
+        }
+        Mono.fromFuture(() -> client.closePointInTime(c -> c.id(pitId)))
+                .subscribe(
+                        response -> log.debug("Closed point-in-time"),
+                        error -> log.warn("Failed to close point-in-time", error));
+    }
+    
+    private Throwable toCursorError(ElasticsearchException e) {
+        if (e.status() == 404) {
+            return new ResponseStatusException(HttpStatus.GONE, "Search cursor expired, restart the search");
+        }
+        return e;
+    }
+    
     /**
-     * Provides autocomplete suggestions for doctor search.
+     * Provides autocomplete suggestions for doctor search from the {@code suggest}
+     * completion field, which covers doctor names, specializations and cities of doctors
+     * accepting patients. Results for a prefix are cached in-process for a short time,
+     * since type-ahead sends the same short prefixes over and over.
      */
     public Mono<List<String>> autocomplete(String query, int limit) {
-        return Mono.fromCallable(() -> executeAutocomplete(query, limit));
+        String prefix = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        String key = prefix + "|" + limit;
+        List<String> cached = suggestionCache.getIfPresent(key);
+        if (cached != null) {
+            meterRegistry.counter("search.suggest.requests", "result", "hit").increment();
+            return Mono.just(cached);
+        }
+        meterRegistry.counter("search.suggest.requests", "result", "miss").increment();
+        
+        return searchExecutor.execute("autocomplete",
+                        () -> elasticsearchClient.search(s -> s
+                                        .index(INDEX_NAME)
+                                        .suggest(sg -> sg.suggesters(SUGGESTER, fs -> fs
+                                                .prefix(prefix)
+                                                .completion(c -> c.field("suggest").size(limit).skipDuplicates(true))))
+                                        .source(src -> src.filter(f -> f.includes("fullName", "primarySpecialization"))),
+                                DoctorDocument.class))
+                .map(response -> {
+                    Set<String> suggestions = new LinkedHashSet<>();
+                    response.suggest().getOrDefault(SUGGESTER, List.of()).stream()
+                            .flatMap(suggestion -> suggestion.completion().options().stream())
+                            .forEach(option -> suggestions.add(toSuggestion(option.text(), option.source())));
+                    return List.copyOf(suggestions);
+                })
+                .doOnNext(suggestions -> suggestionCache.put(key, suggestions));
+    }
+    
+    /**
+     * Name matches keep the "name - specialization" form; specialization and city
+     * matches are returned as the matched text.
+     */
+    private static String toSuggestion(String text, DoctorDocument doc) {
+        if (doc != null && text.equals(doc.getFullName())) {
+            return doc.getPrimarySpecialization() != null
+                    ? doc.getFullName() + " - " + doc.getPrimarySpecialization()
+                    : doc.getFullName();
+        }
+        return text;
     }
     
     /**
@@ -61,8 +330,10 @@ public class DoctorSearchService {
     public Mono<DoctorDocument> indexDoctor(DoctorDocument document) {
         // Calculate popularity score
         document.setPopularityScore(calculatePopularityScore(document));
+        document.setSuggest(buildSuggest(document));
         
         return doctorSearchRepository.save(document)
+                .flatMap(doc -> searchResultCache.evictDoctor(doc.getId()).thenReturn(doc))
                 .doOnSuccess(doc -> log.info("Indexed doctor: {}", doc.getId()));
     }
     
@@ -71,8 +342,10 @@ public class DoctorSearchService {
      */
     public Mono<DoctorDocument> updateDoctor(DoctorDocument document) {
         document.setPopularityScore(calculatePopularityScore(document));
+        document.setSuggest(buildSuggest(document));
         
         return doctorSearchRepository.save(document)
+                .flatMap(doc -> searchResultCache.evictDoctor(doc.getId()).thenReturn(doc))
                 .doOnSuccess(doc -> log.info("Updated doctor index: {}", doc.getId()));
     }
     
@@ -81,14 +354,146 @@ public class DoctorSearchService {
      */
     public Mono<Void> deleteDoctor(String doctorId) {
         return doctorSearchRepository.deleteById(doctorId)
+                .then(searchResultCache.evictDoctor(doctorId))
                 .doOnSuccess(v -> log.info("Deleted doctor from index: {}", doctorId));
     }
     
-    // Private helper methods
+    /**
+     * Applies partial updates, counter increments and deletes for many doctors in a
+     * single {@code _bulk} request.
+     * <p>
+     * Updates are field-level: only the non-null fields of each document are written, so
+     * denormalized fields the event does not carry (specializations, clinics, location,
+     * languages) are kept. Documents for the same doctor are merged in order, and a
+     * missing document is created from the fields given. Counter increments are added to
+     * the stored values; a doctor with only increments is never created, and is skipped
+     * when not indexed (e.g. already deleted). Deletes are applied before updates, so a
+     * doctor deleted and re-created within one batch ends up indexed. The popularity score
+     * and autocomplete inputs are recomputed from the merged document inside Elasticsearch.
+     * <p>
+     * Operations Elasticsearch rejects as temporarily unavailable (429 or 5xx) are resent
+     * for just those doctors, up to {@code app.search.indexing.item-retry-attempts} times;
+     * if they still fail the returned Mono errors, so the caller retries instead of
+     * treating the doctors as poison.
+     *
+     * @param updates    sparse documents; {@code id} is required
+     * @param increments per-doctor deltas for counter fields such as {@code profileViews}
+     * @param deletes    IDs of doctors to remove from the index
+     * @return permanent failure reasons keyed by doctor ID; empty when every operation succeeded
+     */
+    public Mono<Map<String, String>> applyBulk(Collection<DoctorDocument> updates,
+                                               Map<String, Map<String, Long>> increments,
+                                               Collection<String> deletes) {
+        return applyBulk(INDEX_NAME, updates, increments, deletes);
+    }
     
-    private DoctorSearchResponse executeSearch(DoctorSearchRequest request) throws Exception {
-        long startTime = System.currentTimeMillis();
+    /**
+     * Same as {@link #applyBulk(Collection, Map, Collection)} against the given index
+     * instead of the alias; a reindex uses it to catch its new index up.
+     */
+    public Mono<Map<String, String>> applyBulk(String index, Collection<DoctorDocument> updates,
+                                               Map<String, Map<String, Long>> increments,
+                                               Collection<String> deletes) {
+        Map<String, Map<String, Object>> fields = new LinkedHashMap<>();
+        for (DoctorDocument document : updates) {
+            Document source = toSource(document);
+            source.remove("_class");
+            source.remove("popularityScore");
+            source.remove("suggest");
+            fields.computeIfAbsent(document.getId(), id -> new LinkedHashMap<>()).putAll(source);
+        }
+        increments.keySet().forEach(id -> fields.computeIfAbsent(id, key -> new LinkedHashMap<>()));
+        if (fields.isEmpty() && deletes.isEmpty()) {
+            return Mono.just(Map.of());
+        }
         
+        // Grouped by doctor so a retry resends every operation of the doctors that need it
+        Map<String, List<BulkOperation>> operations = new LinkedHashMap<>();
+        for (String doctorId : deletes) {
+            operations.computeIfAbsent(doctorId, id -> new ArrayList<>())
+                    .add(BulkOperation.of(op -> op.delete(d -> d.id(doctorId))));
+        }
+        fields.forEach((doctorId, doc) -> {
+            Map<String, JsonData> params = Map.of(
+                    "doc", JsonData.of(doc),
+                    "increments", JsonData.of(increments.getOrDefault(doctorId, Map.of())));
+            // Only field updates may create the document; counters alone must not resurrect a deleted doctor
+            boolean upsert = !doc.isEmpty();
+            operations.computeIfAbsent(doctorId, id -> new ArrayList<>())
+                    .add(BulkOperation.of(op -> op.update(u -> u
+                            .id(doctorId)
+                            .retryOnConflict(3)
+                            .action(a -> {
+                                a.script(sc -> sc.inline(i -> i.lang("painless").source(PARTIAL_UPDATE_SCRIPT).params(params)));
+                                return upsert ? a.scriptedUpsert(true).upsert(Map.of()) : a;
+                            }))));
+        });
+        
+        Map<String, String> failures = new HashMap<>();
+        Set<String> applied = new LinkedHashSet<>();
+        return sendBulk(index, operations, fields, failures, applied, 0)
+                .then(Mono.defer(() -> Flux.fromIterable(applied)
+                        .flatMap(searchResultCache::evictDoctor)
+                        .then(Mono.just(failures))));
+    }
+    
+    private Mono<Void> sendBulk(String index, Map<String, List<BulkOperation>> operations,
+                                Map<String, Map<String, Object>> fields, Map<String, String> failures,
+                                Set<String> applied, int attempt) {
+        BulkRequest request = new BulkRequest.Builder()
+                .index(index)
+                .operations(operations.values().stream().flatMap(List::stream).toList())
+                .build();
+        
+        return Mono.fromFuture(() -> backgroundClient.bulk(request))
+                .flatMap(response -> {
+                    Map<String, List<BulkOperation>> retry = new LinkedHashMap<>();
+                    for (BulkResponseItem item : response.items()) {
+                        // A delete or counter update for a doctor that is not indexed has nothing to do
+                        if (item.error() != null && item.status() == 404
+                                && (item.operationType() == OperationType.Delete || fields.get(item.id()).isEmpty())) {
+                            continue;
+                        }
+                        if (item.error() == null) {
+                            applied.add(item.id());
+                        } else if (item.status() == 429 || item.status() >= 500) {
+                            retry.put(item.id(), operations.get(item.id()));
+                        } else {
+                            failures.put(item.id(), item.error().type() + ": " + item.error().reason());
+                        }
+                    }
+                    applied.removeAll(failures.keySet());
+                    applied.removeAll(retry.keySet());
+                    log.info("Applied bulk of {} doctor operations, {} failed, {} to retry",
+                            response.items().size(), failures.size(), retry.size());
+                    if (retry.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    if (attempt >= itemRetryAttempts) {
+                        return Mono.error(new IllegalStateException(
+                                "Elasticsearch is unavailable for " + retry.size() + " doctors after " + attempt + " retries"));
+                    }
+                    return Mono.delay(Duration.ofMillis(itemRetryIntervalMs << attempt))
+                            .then(sendBulk(index, retry, fields, failures, applied, attempt + 1));
+                });
+    }
+    
+    /**
+     * Converts a document to its stored form through Spring Data, so field formats
+     * match documents written by the repository.
+     */
+    Document toSource(DoctorDocument document) {
+        return elasticsearchOperations.getElasticsearchConverter().mapObject(document);
+    }
+    
+    // Private helper methods
+    
+    /**
+     * Builds the search for one page: by offset when {@code searchAfter} is null, otherwise
+     * after the given sort values, reading from the point-in-time when one is given.
+     */
+    private SearchRequest buildSearchRequest(DoctorSearchRequest request, String pitId,
+                                             List<FieldValue> searchAfter, int size, boolean highlight) {
         // Build the query
         BoolQuery.Builder boolQuery = new BoolQuery.Builder();
         
@@ -194,26 +599,37 @@ public class DoctorSearchService {
         
         // Build search request
         SearchRequest.Builder searchBuilder = new SearchRequest.Builder()
-                .index(INDEX_NAME)
                 .query(boolQuery.build()._toQuery())
-                .from(request.getPage() * request.getSize())
-                .size(request.getSize());
+                .size(size);
+        if (pitId != null) {
+            searchBuilder.pit(p -> p.id(pitId).keepAlive(k -> k.time(pitKeepAlive)));
+        } else {
+            searchBuilder.index(INDEX_NAME);
+        }
+        if (searchAfter != null) {
+            searchBuilder.searchAfter(searchAfter);
+        } else {
+            searchBuilder.from(request.getPage() * size);
+        }
         
-        // Add sorting
+        // Add sorting, with the doctor ID as a unique tiebreaker so search_after never skips or repeats hits
         addSorting(searchBuilder, request);
+        searchBuilder.sort(s -> s.field(f -> f.field("id").order(SortOrder.Asc)));
         
         // Add highlighting
-        searchBuilder.highlight(h -> h
-                .fields("fullName", f -> f.preTags("<em>").postTags("</em>"))
-                .fields("specializations.name", f -> f.preTags("<em>").postTags("</em>"))
-                .fields("bio", f -> f.preTags("<em>").postTags("</em>").fragmentSize(150).numberOfFragments(3))
-        );
-        
-        // Execute search
-        SearchResponse<DoctorDocument> response = elasticsearchClient.search(
-                searchBuilder.build(), DoctorDocument.class
-        );
+        if (highlight) {
+            searchBuilder.highlight(h -> h
+                    .fields("fullName", f -> f.preTags("<em>").postTags("</em>"))
+                    .fields("specializations.name", f -> f.preTags("<em>").postTags("</em>"))
+                    .fields("bio", f -> f.preTags("<em>").postTags("</em>").fragmentSize(150).numberOfFragments(3))
+            );
+        }
         
+        return searchBuilder.build();
+    }
+    
+    private DoctorSearchResponse toSearchResponse(SearchResponse<DoctorDocument> response,
+                                                  DoctorSearchRequest request, long startTime) {
         // Map results
         List<DoctorSearchResult> results = response.hits().hits().stream()
                 .map(this::mapHitToResult)
@@ -222,12 +638,18 @@ public class DoctorSearchService {
         TotalHits totalHits = response.hits().total();
         long total = totalHits != null ? totalHits.value() : 0;
         
+        List<Hit<DoctorDocument>> hits = response.hits().hits();
+        String nextCursor = hits.size() == request.getSize()
+                ? new SearchCursor(response.pitId(), hits.get(hits.size() - 1).sort()).encode()
+                : null;
+        
         return DoctorSearchResponse.builder()
                 .results(results)
                 .totalHits(total)
                 .page(request.getPage())
                 .size(request.getSize())
                 .totalPages((int) Math.ceil((double) total / request.getSize()))
+                .nextCursor(nextCursor)
                 .tookMs(System.currentTimeMillis() - startTime)
                 .build();
     }
@@ -327,29 +749,36 @@ public class DoctorSearchService {
                 .build();
     }
     
-    private List<String> executeAutocomplete(String query, int limit) throws Exception {
-        SearchResponse<DoctorDocument> response = elasticsearchClient.search(s -> s
-                        .index(INDEX_NAME)
-                        .query(q -> q.bool(b -> b
-                                .must(m -> m.match(mt -> mt
-                                        .field("fullName.autocomplete")
-                                        .query(query)
-                                ))
-                                .filter(f -> f.term(t -> t.field("isAcceptingPatients").value(true)))
-                        ))
-                        .size(limit)
-                        .source(src -> src.filter(f -> f.includes("fullName", "primarySpecialization"))),
-                DoctorDocument.class
-        );
-        
-        return response.hits().hits().stream()
-                .map(Hit::source)
-                .filter(doc -> doc != null)
-                .map(doc -> doc.getFullName() + " - " + doc.getPrimarySpecialization())
-                .collect(Collectors.toList());
+    /**
+     * Autocomplete inputs for a doctor, weighted by popularity. Doctors not accepting
+     * patients get no suggestions.
+     */
+    static Completion buildSuggest(DoctorDocument doc) {
+        if (!Boolean.TRUE.equals(doc.getIsAcceptingPatients())) {
+            return null;
+        }
+        List<String> inputs = new ArrayList<>();
+        inputs.add(doc.getFullName());
+        inputs.add(doc.getPrimarySpecialization());
+        if (doc.getSpecializations() != null) {
+            doc.getSpecializations().forEach(spec -> inputs.add(spec.getName()));
+        }
+        if (doc.getCities() != null) {
+            inputs.addAll(doc.getCities());
+        }
+        String[] distinct = inputs.stream()
+                .filter(input -> input != null && !input.isBlank())
+                .distinct()
+                .toArray(String[]::new);
+        if (distinct.length == 0) {
+            return null;
+        }
+        Completion completion = new Completion(distinct);
+        completion.setWeight((int) Math.round(doc.getPopularityScore() != null ? doc.getPopularityScore() : 0));
+        return completion;
     }
     
-    private Double calculatePopularityScore(DoctorDocument doc) {
+    static Double calculatePopularityScore(DoctorDocument doc) {
         double score = 0.0;
         
         // Rating contribution (0-5 scale, weight: 40%)
@@ -0,0 +1,88 @@
+package com.healthapp.search.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs Elasticsearch calls made through the async client without tying up event-loop threads.
+ * <p>
+ * At most {@code app.search.max-concurrency} calls are in flight per instance; calls beyond
+ * that are rejected immediately with 503 instead of queueing behind a slow cluster. Each call
+ * is bounded by {@code app.search.timeout-ms} (504 on expiry), and cancelling the subscriber
+ * aborts the underlying HTTP request.
+ */
+@Slf4j
+@Component
+@Profile("!test")
+@RequiredArgsConstructor
+public class SearchExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${app.search.timeout-ms:2000}")
+    private long timeoutMs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Counter rejectedCounter;
+    private Counter timeoutCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        rejectedCounter = meterRegistry.counter("search.es.rejected");
+        timeoutCounter = meterRegistry.counter("search.es.timeouts");
+        Gauge.builder("search.es.in.flight", inFlight, AtomicInteger::get)
+                .description("Elasticsearch calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes an async Elasticsearch call under the concurrency limit and timeout.
+     *
+     * @param operation name used for the latency metric
+     * @param call      starts the request; invoked once per subscription
+     */
+    public <T> Mono<T> execute(String operation, Supplier<CompletableFuture<T>> call) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxConcurrency) {
+                inFlight.decrementAndGet();
+                rejectedCounter.increment();
+                return Mono.error(new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE, "Search is overloaded, please retry"));
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.fromFuture(call)
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .onErrorMap(TimeoutException.class, e -> {
+                        timeoutCounter.increment();
+                        log.warn("Elasticsearch {} timed out after {}ms", operation, timeoutMs);
+                        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Search timed out");
+                    })
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        sample.stop(meterRegistry.timer("search.es.latency", "operation", operation));
+                    });
+        });
+    }
+}
@@ -0,0 +1,300 @@
+package com.healthapp.search.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthapp.search.model.dto.DoctorSearchRequest;
+import com.healthapp.search.model.dto.DoctorSearchResponse;
+import com.healthapp.search.model.dto.DoctorSearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache for doctor search results: a small in-process Caffeine near cache in
+ * front of a shared Redis tier.
+ * <p>
+ * Requests are canonicalized before lookup (trimmed text, sorted filter lists, geo
+ * coordinates rounded to ~100m) and the canonical request is what gets searched, so
+ * equivalent requests share one entry. Each Redis entry is also registered under the
+ * doctors it contains, so an index update for a doctor evicts exactly the result pages
+ * that show that doctor. Newly created doctors appear once the short TTL expires.
+ */
+@Slf4j
+@Component
+@Profile("!test")
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private static final String RESULT_KEY_PREFIX = "search:results:";
+    private static final String DOCTOR_KEY_PREFIX = "search:results:doctor:";
+    private static final int GEO_SCALE = 3;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.cache.near-ttl-seconds:10}")
+    private long nearTtlSeconds;
+
+    @Value("${app.search.cache.near-max-entries:10000}")
+    private long nearMaxEntries;
+
+    @Value("${app.search.cache.redis-ttl-seconds:60}")
+    private long redisTtlSeconds;
+
+    private Cache<String, DoctorSearchResponse> nearCache;
+
+    @PostConstruct
+    void init() {
+        nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(nearTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the cached response for the request, or runs the search on the canonical
+     * request and caches its result.
+     */
+    public Mono<DoctorSearchResponse> get(DoctorSearchRequest request,
+                                          Function<DoctorSearchRequest, Mono<DoctorSearchResponse>> search) {
+        DoctorSearchRequest canonical = canonicalize(request);
+        if (!enabled) {
+            return search.apply(canonical);
+        }
+
+        String key = cacheKey(canonical);
+        String shape = queryShape(canonical);
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        DoctorSearchResponse near = nearCache.getIfPresent(key);
+        if (near != null) {
+            sample.stop(requestTimer(shape, "near"));
+            return Mono.just(near);
+        }
+
+        String redisKey = RESULT_KEY_PREFIX + sha256(key);
+        return readRedis(redisKey)
+                .doOnNext(response -> {
+                    nearCache.put(key, response);
+                    sample.stop(requestTimer(shape, "redis"));
+                })
+                .switchIfEmpty(Mono.defer(() -> search.apply(canonical)
+                        .doOnNext(response -> {
+                            nearCache.put(key, response);
+                            sample.stop(requestTimer(shape, "miss"));
+                        })
+                        .flatMap(response -> writeRedis(redisKey, response).thenReturn(response))));
+    }
+
+    /**
+     * Evicts every cached result page that contains the doctor.
+     */
+    public Mono<Void> evictDoctor(String doctorId) {
+        if (!enabled || doctorId == null) {
+            return Mono.empty();
+        }
+        nearCache.asMap().values().removeIf(response -> contains(response, doctorId));
+
+        String doctorKey = DOCTOR_KEY_PREFIX + doctorId;
+        return redisTemplate.opsForSet().members(doctorKey)
+                .collectList()
+                .flatMap(keys -> {
+                    keys.add(doctorKey);
+                    return redisTemplate.delete(keys.toArray(new String[0]));
+                })
+                .doOnNext(deleted -> log.debug("Evicted {} cached search pages for doctor {}", deleted - 1, doctorId))
+                .onErrorResume(error -> {
+                    log.warn("Failed to evict cached search results for doctor {}", doctorId, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<DoctorSearchResponse> readRedis(String redisKey) {
+        return redisTemplate.opsForValue().get(redisKey)
+                .flatMap(json -> Mono.fromCallable(() -> objectMapper.readValue(json, DoctorSearchResponse.class)))
+                .onErrorResume(error -> {
+                    log.warn("Search cache read failed, falling back to Elasticsearch", error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> writeRedis(String redisKey, DoctorSearchResponse response) {
+        Duration ttl = Duration.ofSeconds(redisTtlSeconds);
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(response))
+                .flatMap(json -> redisTemplate.opsForValue().set(redisKey, json, ttl))
+                .thenMany(Flux.fromIterable(doctorIds(response)))
+                .flatMap(doctorId -> {
+                    String doctorKey = DOCTOR_KEY_PREFIX + doctorId;
+                    return redisTemplate.opsForSet().add(doctorKey, redisKey)
+                            .then(redisTemplate.expire(doctorKey, ttl));
+                })
+                .onErrorResume(error -> {
+                    log.warn("Search cache write failed", error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Timer requestTimer(String shape, String result) {
+        return Timer.builder("search.cache.requests")
+                .description("Search requests by query shape and cache tier that answered")
+                .tags("shape", shape, "result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copy of the request with equivalent spellings collapsed onto one form.
+     */
+    static DoctorSearchRequest canonicalize(DoctorSearchRequest request) {
+        return DoctorSearchRequest.builder()
+                .query(normalizeText(request.getQuery()))
+                .specializationIds(sorted(request.getSpecializationIds()))
+                .specialization(trimToNull(request.getSpecialization()))
+                .city(trimToNull(request.getCity()))
+                .state(trimToNull(request.getState()))
+                .pincode(trimToNull(request.getPincode()))
+                .latitude(roundGeo(request.getLatitude()))
+                .longitude(roundGeo(request.getLongitude()))
+                .radiusKm(request.getRadiusKm())
+                .minRating(request.getMinRating())
+                .minFee(normalizeDecimal(request.getMinFee()))
+                .maxFee(normalizeDecimal(request.getMaxFee()))
+                .minExperience(request.getMinExperience())
+                .languages(sorted(request.getLanguages()))
+                .verifiedOnly(Boolean.TRUE.equals(request.getVerifiedOnly()))
+                .acceptingPatientsOnly(Boolean.TRUE.equals(request.getAcceptingPatientsOnly()))
+                .offersVideoConsultation(Boolean.TRUE.equals(request.getOffersVideoConsultation()))
+                .offersInPersonConsultation(Boolean.TRUE.equals(request.getOffersInPersonConsultation()))
+                .sortBy(request.getSortBy() != null ? request.getSortBy() : DoctorSearchRequest.SortField.RELEVANCE)
+                .sortDirection(request.getSortDirection() != null
+                        ? request.getSortDirection() : DoctorSearchRequest.SortDirection.DESC)
+                .page(request.getPage() != null ? request.getPage() : 0)
+                .size(request.getSize() != null ? request.getSize() : 20)
+                .build();
+    }
+
+    private static String cacheKey(DoctorSearchRequest r) {
+        return new StringJoiner("|")
+                .add("q=" + r.getQuery())
+                .add("specIds=" + r.getSpecializationIds())
+                .add("spec=" + r.getSpecialization())
+                .add("city=" + r.getCity())
+                .add("state=" + r.getState())
+                .add("pin=" + r.getPincode())
+                .add("geo=" + r.getLatitude() + "," + r.getLongitude() + "," + r.getRadiusKm())
+                .add("rating=" + r.getMinRating())
+                .add("fee=" + r.getMinFee() + "," + r.getMaxFee())
+                .add("exp=" + r.getMinExperience())
+                .add("lang=" + r.getLanguages())
+                .add("flags=" + r.getVerifiedOnly() + "," + r.getAcceptingPatientsOnly() + ","
+                        + r.getOffersVideoConsultation() + "," + r.getOffersInPersonConsultation())
+                .add("sort=" + r.getSortBy() + "," + r.getSortDirection())
+                .add("page=" + r.getPage() + "," + r.getSize())
+                .toString();
+    }
+
+    /**
+     * Low-cardinality description of which filters a request uses, for metrics.
+     */
+    private static String queryShape(DoctorSearchRequest r) {
+        StringJoiner shape = new StringJoiner("+");
+        if (r.getQuery() != null) shape.add("text");
+        if (r.getSpecialization() != null || r.getSpecializationIds() != null) shape.add("specialization");
+        if (r.getCity() != null || r.getState() != null || r.getPincode() != null) shape.add("location");
+        if (r.getLatitude() != null && r.getLongitude() != null) shape.add("geo");
+        if (r.getMinRating() != null) shape.add("rating");
+        if (r.getMinFee() != null || r.getMaxFee() != null) shape.add("fee");
+        if (r.getMinExperience() != null) shape.add("experience");
+        if (r.getLanguages() != null) shape.add("language");
+        String filters = shape.length() == 0 ? "browse" : shape.toString();
+        return filters + ":" + r.getSortBy().name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeText(String text) {
+        String trimmed = trimToNull(text);
+        return trimmed != null ? trimmed.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static List<String> sorted(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static Double roundGeo(Double coordinate) {
+        if (coordinate == null) {
+            return null;
+        }
+        return BigDecimal.valueOf(coordinate).setScale(GEO_SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static BigDecimal normalizeDecimal(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros() : null;
+    }
+
+    private static List<String> doctorIds(DoctorSearchResponse response) {
+        List<String> ids = new ArrayList<>();
+        if (response.getResults() != null) {
+            for (DoctorSearchResult result : response.getResults()) {
+                if (result != null && result.getId() != null) {
+                    ids.add(result.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static boolean contains(DoctorSearchResponse response, String doctorId) {
+        return doctorIds(response).contains(doctorId);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+#!/bin/bash
+# Autocomplete Latency Test
+# Drives type-ahead traffic (1-3 character prefixes of common names,
+# specializations and cities) against the doctor autocomplete endpoint and
+# checks p99 stays in single-digit milliseconds.
+# Run after a reindex so the suggest field is populated.
+# Uses k6 for load testing (https://k6.io)
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8083}"
+VUS="${VUS:-50}"
+DURATION="${DURATION:-2m}"
+P99_MS="${P99_MS:-10}"
+
+echo "Autocomplete Latency Test"
+echo "========================="
+echo "Target: $BASE_URL"
+echo "VUs: $VUS, duration: $DURATION, p99 target: ${P99_MS}ms"
+echo ""
+
+# Create k6 test script
+cat > /tmp/autocomplete-latency-test.js << 'EOF'
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+// Custom metrics
+const prefixLatency = new Trend('autocomplete_latency', true);
+
+const P99_MS = parseInt(__ENV.P99_MS || '10');
+
+export const options = {
+  vus: parseInt(__ENV.VUS || '50'),
+  duration: __ENV.DURATION || '2m',
+  thresholds: {
+    'autocomplete_latency': [`p(99)<${P99_MS}`],
+    'http_req_failed': ['rate<0.01'],
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8083';
+const WORDS = ['sharma', 'gupta', 'patel', 'kumar', 'cardiology', 'dermatology',
+  'pediatrics', 'orthopedics', 'mumbai', 'delhi', 'bangalore', 'chennai'];
+
+export default function () {
+  // Simulate a user typing the first one to three characters of a word
+  const word = WORDS[Math.floor(Math.random() * WORDS.length)];
+  for (let length = 1; length <= 3; length++) {
+    const response = http.get(
+      `${BASE_URL}/api/v1/search/doctors/autocomplete?query=${word.substring(0, length)}&limit=5`,
+      { tags: { prefix_length: String(length) } });
+    check(response, { 'autocomplete ok': (r) => r.status === 200 });
+    prefixLatency.add(response.timings.duration, { prefix_length: String(length) });
+  }
+}
+
+export function handleSummary(data) {
+  const v = data.metrics['autocomplete_latency'].values;
+  let summary = '\n=== Autocomplete Summary ===\n\n';
+  summary += `  requests: ${data.metrics['http_reqs'].values.count}\n`;
+  summary += `  p50 ${v['p(50)'].toFixed(2)}ms, p95 ${v['p(95)'].toFixed(2)}ms, p99 ${v['p(99)'].toFixed(2)}ms\n`;
+  summary += `  p99 target ${P99_MS}ms: ${v['p(99)'] < P99_MS ? 'met' : 'MISSED'}\n`;
+
+  return {
+    'stdout': summary,
+    '/tmp/autocomplete-latency-results.json': JSON.stringify(data, null, 2),
+  };
+}
+EOF
+
+# Run k6 test
+if command -v k6 &> /dev/null; then
+    k6 run \
+        --summary-trend-stats "avg,min,med,max,p(50),p(95),p(99)" \
+        --env BASE_URL="$BASE_URL" \
+        --env VUS="$VUS" \
+        --env DURATION="$DURATION" \
+        --env P99_MS="$P99_MS" \
+        /tmp/autocomplete-latency-test.js
+else
+    echo "k6 is not installed. Install from https://k6.io/docs/getting-started/installation/"
+    echo ""
+    echo "The test script has been created at /tmp/autocomplete-latency-test.js"
+    echo "You can run it manually with: k6 run /tmp/autocomplete-latency-test.js"
+fi
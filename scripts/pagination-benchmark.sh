@@ -0,0 +1,118 @@
+#!/bin/bash
+# Appointment Pagination Benchmark
+# Compares page latency of OFFSET pagination against keyset (cursor) pagination
+# at page 1 and page 500 of a patient's appointment history.
+# The patient needs at least 500 * PAGE_SIZE appointments.
+# Uses k6 for load testing (https://k6.io)
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8084}"
+PATIENT_ID="${PATIENT_ID:?PATIENT_ID of a patient with a long history is required}"
+PAGE_SIZE="${PAGE_SIZE:-20}"
+DEEP_PAGE="${DEEP_PAGE:-500}"
+ITERATIONS="${ITERATIONS:-20}"
+
+echo "Appointment Pagination Benchmark"
+echo "================================"
+echo "Target: $BASE_URL"
+echo "Patient: $PATIENT_ID"
+echo "Page size: $PAGE_SIZE, deep page: $DEEP_PAGE"
+echo ""
+
+# Create k6 test script
+cat > /tmp/pagination-benchmark.js << 'EOF'
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+// Custom metrics
+const offsetFirstPage = new Trend('offset_first_page', true);
+const offsetDeepPage = new Trend('offset_deep_page', true);
+const keysetFirstPage = new Trend('keyset_first_page', true);
+const keysetDeepPage = new Trend('keyset_deep_page', true);
+
+export const options = {
+  scenarios: {
+    pagination: {
+      executor: 'shared-iterations',
+      vus: 1,
+      iterations: parseInt(__ENV.ITERATIONS || '20'),
+      maxDuration: '30m',
+    },
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+const PAGE_SIZE = parseInt(__ENV.PAGE_SIZE || '20');
+const DEEP_PAGE = parseInt(__ENV.DEEP_PAGE || '500');
+const params = { headers: { 'X-User-Id': __ENV.PATIENT_ID } };
+
+export default function () {
+  // OFFSET pagination: the database scans and discards every preceding row
+  let response = http.get(`${BASE_URL}/api/v1/appointments/patient/me?page=0&size=${PAGE_SIZE}`, params);
+  offsetFirstPage.add(response.timings.duration);
+  response = http.get(`${BASE_URL}/api/v1/appointments/patient/me?page=${DEEP_PAGE - 1}&size=${PAGE_SIZE}`, params);
+  offsetDeepPage.add(response.timings.duration);
+  check(response, { 'offset page ok': (r) => r.status === 200 });
+
+  // Keyset pagination: walk the cursor chain down to the deep page
+  let cursor = null;
+  for (let page = 1; page <= DEEP_PAGE; page++) {
+    const query = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+    response = http.get(`${BASE_URL}/api/v1/appointments/patient/me/page?size=${PAGE_SIZE}${query}`, params);
+    if (!check(response, { 'keyset page ok': (r) => r.status === 200 })) {
+      return;
+    }
+    if (page === 1) {
+      keysetFirstPage.add(response.timings.duration);
+    } else if (page === DEEP_PAGE) {
+      keysetDeepPage.add(response.timings.duration);
+    }
+    cursor = response.json('nextCursor');
+    if (!cursor) {
+      break;
+    }
+  }
+}
+
+function line(data, name, label) {
+  const metric = data.metrics[name];
+  if (!metric) {
+    return `  ${label}: no samples\n`;
+  }
+  const v = metric.values;
+  return `  ${label}: p50 ${v['p(50)'].toFixed(2)}ms, p95 ${v['p(95)'].toFixed(2)}ms\n`;
+}
+
+export function handleSummary(data) {
+  let summary = '\n=== Pagination Summary ===\n\n';
+  summary += 'OFFSET:\n';
+  summary += line(data, 'offset_first_page', 'page 1  ');
+  summary += line(data, 'offset_deep_page', `page ${DEEP_PAGE}`);
+  summary += '\nKeyset:\n';
+  summary += line(data, 'keyset_first_page', 'page 1  ');
+  summary += line(data, 'keyset_deep_page', `page ${DEEP_PAGE}`);
+
+  return {
+    'stdout': summary,
+    '/tmp/pagination-benchmark-results.json': JSON.stringify(data, null, 2),
+  };
+}
+EOF
+
+# Run k6 test
+if command -v k6 &> /dev/null; then
+    k6 run \
+        --summary-trend-stats "avg,min,med,max,p(50),p(95),p(99)" \
+        --env BASE_URL="$BASE_URL" \
+        --env PATIENT_ID="$PATIENT_ID" \
+        --env PAGE_SIZE="$PAGE_SIZE" \
+        --env DEEP_PAGE="$DEEP_PAGE" \
+        --env ITERATIONS="$ITERATIONS" \
+        /tmp/pagination-benchmark.js
+else
+    echo "k6 is not installed. Install from https://k6.io/docs/getting-started/installation/"
+    echo ""
+    echo "The test script has been created at /tmp/pagination-benchmark.js"
+    echo "You can run it manually with: k6 run /tmp/pagination-benchmark.js"
+fi
@@ -0,0 +1,173 @@
+#!/bin/bash
+# Search Event-Loop Latency Test
+# Runs search-service against a stub Elasticsearch that answers every search
+# slowly, then checks that unrelated endpoints on the same event loops stay fast
+# while searches are in flight.
+# Uses k6 for load testing (https://k6.io)
+#
+# Start search-service against the stub first, e.g.:
+#   ELASTICSEARCH_URI=http://localhost:9299 ./mvnw -pl search-service spring-boot:run
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8083}"
+STUB_PORT="${STUB_PORT:-9299}"
+ES_DELAY_MS="${ES_DELAY_MS:-1500}"
+SEARCH_VUS="${SEARCH_VUS:-200}"
+DURATION="${DURATION:-1m}"
+
+echo "Search Event-Loop Latency Test"
+echo "=============================="
+echo "Target: $BASE_URL"
+echo "Stub Elasticsearch: http://localhost:$STUB_PORT (delay ${ES_DELAY_MS}ms)"
+echo "Search VUs: $SEARCH_VUS"
+echo ""
+
+# Stub Elasticsearch: every _search takes ES_DELAY_MS and returns no hits
+cat > /tmp/es-stub.py << 'EOF'
+import json
+import os
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+DELAY = int(os.environ.get('ES_DELAY_MS', '1500')) / 1000.0
+EMPTY_SEARCH = json.dumps({
+    'took': int(DELAY * 1000), 'timed_out': False,
+    '_shards': {'total': 1, 'successful': 1, 'skipped': 0, 'failed': 0},
+    'hits': {'total': {'value': 0, 'relation': 'eq'}, 'max_score': None, 'hits': []},
+}).encode()
+CLUSTER_INFO = json.dumps({
+    'name': 'stub', 'cluster_name': 'stub', 'cluster_uuid': 'stub',
+    'version': {'number': '8.11.0', 'build_flavor': 'default', 'lucene_version': '9.8.0'},
+    'tagline': 'You Know, for Search',
+}).encode()
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = 'HTTP/1.1'
+
+    def respond(self, body):
+        self.send_response(200)
+        self.send_header('Content-Type', 'application/json')
+        self.send_header('X-Elastic-Product', 'Elasticsearch')
+        self.send_header('Content-Length', str(len(body)))
+        self.end_headers()
+        if self.command != 'HEAD':
+            self.wfile.write(body)
+
+    def handle_any(self):
+        length = int(self.headers.get('Content-Length') or 0)
+        if length:
+            self.rfile.read(length)
+        if '_search' in self.path:
+            time.sleep(DELAY)
+            self.respond(EMPTY_SEARCH)
+        elif self.path == '/':
+            self.respond(CLUSTER_INFO)
+        else:
+            self.respond(b'{"acknowledged":true}')
+
+    do_GET = do_POST = do_PUT = do_HEAD = do_DELETE = handle_any
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+ThreadingHTTPServer(('0.0.0.0', int(os.environ.get('STUB_PORT', '9299'))), Handler).serve_forever()
+EOF
+
+# Create k6 test script
+cat > /tmp/search-event-loop-test.js << 'EOF'
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+// Custom metrics
+const probeLatency = new Trend('probe_latency', true);
+const searchLatency = new Trend('search_latency', true);
+const searchRejected = new Counter('search_rejected');
+
+export const options = {
+  scenarios: {
+    // Saturate search with requests that each wait on the slow stub
+    slow_searches: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.SEARCH_VUS || '200'),
+      duration: __ENV.DURATION || '1m',
+      exec: 'search',
+    },
+    // Cheap requests sharing the same event loops
+    probes: {
+      executor: 'constant-arrival-rate',
+      rate: 50,
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '1m',
+      preAllocatedVUs: 20,
+      exec: 'probe',
+    },
+  },
+  thresholds: {
+    probe_latency: ['p(95)<50', 'p(99)<100'],  // Event loop is never blocked by search
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8083';
+
+export function search() {
+  const response = http.get(`${BASE_URL}/api/v1/search/doctors?query=cardio`);
+  searchLatency.add(response.timings.duration);
+  if (response.status === 503) {
+    searchRejected.add(1);
+  }
+  check(response, {
+    'search answered or shed': (r) => r.status === 200 || r.status === 503 || r.status === 504,
+  });
+}
+
+export function probe() {
+  const response = http.get(`${BASE_URL}/health`);
+  probeLatency.add(response.timings.duration);
+  check(response, { 'probe ok': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+  const probe = data.metrics.probe_latency.values;
+  const search = data.metrics.search_latency.values;
+  const rejected = data.metrics.search_rejected?.values.count || 0;
+
+  let summary = '\n=== Event-Loop Latency Summary ===\n\n';
+  summary += `Probe latency (must stay flat):\n`;
+  summary += `  p50: ${probe['p(50)'].toFixed(2)}ms\n`;
+  summary += `  p95: ${probe['p(95)'].toFixed(2)}ms\n`;
+  summary += `  p99: ${(probe['p(99)'] || probe.max).toFixed(2)}ms\n`;
+  summary += `\nSearch latency (bounded by the stub delay):\n`;
+  summary += `  p50: ${search['p(50)'].toFixed(2)}ms\n`;
+  summary += `  p95: ${search['p(95)'].toFixed(2)}ms\n`;
+  summary += `Searches shed with 503: ${rejected}\n`;
+
+  return {
+    'stdout': summary,
+    '/tmp/search-event-loop-results.json': JSON.stringify(data, null, 2),
+  };
+}
+EOF
+
+# Start the stub
+ES_DELAY_MS="$ES_DELAY_MS" STUB_PORT="$STUB_PORT" python3 /tmp/es-stub.py &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null' EXIT
+sleep 1
+
+# Run k6 test
+if command -v k6 &> /dev/null; then
+    k6 run \
+        --summary-trend-stats "avg,min,med,max,p(50),p(95),p(99)" \
+        --env BASE_URL="$BASE_URL" \
+        --env SEARCH_VUS="$SEARCH_VUS" \
+        --env DURATION="$DURATION" \
+        /tmp/search-event-loop-test.js
+else
+    echo "k6 is not installed. Install from https://k6.io/docs/getting-started/installation/"
+    echo ""
+    echo "The test script has been created at /tmp/search-event-loop-test.js"
+    echo "You can run it manually with: k6 run /tmp/search-event-loop-test.js"
+fi
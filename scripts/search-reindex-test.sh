@@ -0,0 +1,180 @@
+#!/bin/bash
+# Search Reindex Test
+# Runs a full doctor reindex against local stubs: a fake doctor-service export
+# serving DOCTOR_COUNT generated doctors and an Elasticsearch-compatible stub that
+# accepts index creation, _bulk writes and alias swaps. Reports docs/sec.
+#
+# Start search-service against the stubs first, e.g.:
+#   ELASTICSEARCH_URI=http://localhost:9299 DOCTOR_SERVICE_URL=http://localhost:8092 \
+#     ./mvnw -pl search-service spring-boot:run
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8083}"
+ES_PORT="${ES_PORT:-9299}"
+DOCTOR_PORT="${DOCTOR_PORT:-8092}"
+DOCTOR_COUNT="${DOCTOR_COUNT:-100000}"
+BULK_DELAY_MS="${BULK_DELAY_MS:-20}"
+
+echo "Search Reindex Test"
+echo "==================="
+echo "Target: $BASE_URL"
+echo "Doctors: $DOCTOR_COUNT"
+echo "Stub Elasticsearch: http://localhost:$ES_PORT (bulk delay ${BULK_DELAY_MS}ms)"
+echo "Stub doctor-service: http://localhost:$DOCTOR_PORT"
+echo ""
+
+cat > /tmp/reindex-stubs.py << 'EOF'
+import json
+import os
+import threading
+import time
+import uuid
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import urlparse, parse_qs
+
+DOCTOR_COUNT = int(os.environ.get('DOCTOR_COUNT', '100000'))
+BULK_DELAY = int(os.environ.get('BULK_DELAY_MS', '20')) / 1000.0
+CITIES = ['Bangalore', 'Mumbai', 'Delhi', 'Chennai', 'Pune']
+SPECIALIZATIONS = ['Cardiology', 'Dermatology', 'Pediatrics', 'Orthopedics']
+
+# Sorted IDs so that the export can be resumed with ?after=
+DOCTOR_IDS = sorted(str(uuid.UUID(int=i + 1)) for i in range(DOCTOR_COUNT))
+
+state = {'indices': set(), 'alias': set(), 'docs': 0}
+lock = threading.Lock()
+
+
+def doctor(i, doctor_id):
+    return {
+        'id': doctor_id, 'userId': doctor_id, 'fullName': f'Doctor {i}',
+        'experienceYears': i % 40, 'bio': 'Generated for reindex testing',
+        'consultationFee': 500 + i % 1000, 'rating': round(3 + (i % 20) / 10, 1),
+        'reviewCount': i % 500, 'isVerified': True, 'isAcceptingPatients': True,
+        'specializations': [{'id': str(i % 4), 'name': SPECIALIZATIONS[i % 4], 'isPrimary': True}],
+        'clinics': [{'id': doctor_id, 'name': f'Clinic {i}', 'city': CITIES[i % 5],
+                     'latitude': 12.9 + (i % 100) / 1000, 'longitude': 77.5 + (i % 100) / 1000,
+                     'isPrimary': True}],
+    }
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = 'HTTP/1.1'
+
+    def send(self, status, body, content_type='application/json'):
+        data = body if isinstance(body, bytes) else json.dumps(body).encode()
+        self.send_response(status)
+        self.send_header('Content-Type', content_type)
+        self.send_header('X-Elastic-Product', 'Elasticsearch')
+        self.send_header('Content-Length', str(len(data)))
+        self.end_headers()
+        if self.command != 'HEAD':
+            self.wfile.write(data)
+
+    def body(self):
+        length = int(self.headers.get('Content-Length') or 0)
+        return self.rfile.read(length) if length else b''
+
+    def handle_any(self):
+        url = urlparse(self.path)
+        path = url.path
+        payload = self.body()
+
+        if path == '/api/v1/doctors/export':
+            self.export(parse_qs(url.query))
+        elif path.endswith('/_bulk'):
+            self.bulk(path, payload)
+        elif path == '/_aliases':
+            self.aliases(json.loads(payload))
+            self.send(200, {'acknowledged': True})
+        elif path.endswith('/_settings'):
+            self.send(200, {'acknowledged': True})
+        elif self.command == 'DELETE':
+            with lock:
+                state['indices'].discard(path.strip('/'))
+            self.send(200, {'acknowledged': True})
+        elif path.endswith('/_refresh'):
+            self.send(200, {'_shards': {'total': 1, 'successful': 1, 'failed': 0}})
+        elif path.startswith('/_alias/'):
+            with lock:
+                aliased = {name: {'aliases': {'doctors': {}}} for name in state['alias']}
+            if aliased:
+                self.send(200, aliased)
+            else:
+                self.send(404, {'error': {'type': 'aliases_not_found_exception', 'reason': 'missing'}, 'status': 404})
+        elif self.command == 'HEAD':
+            with lock:
+                found = bool(state['alias'])
+            self.send(200 if found else 404, b'')
+        elif self.command == 'PUT':
+            name = path.strip('/')
+            with lock:
+                state['indices'].add(name)
+            self.send(200, {'acknowledged': True, 'shards_acknowledged': True, 'index': name})
+        elif self.command == 'GET' and path.startswith('/doctors_v'):
+            with lock:
+                self.send(200, {name: {} for name in state['indices']})
+        else:
+            self.send(200, {'name': 'stub', 'cluster_name': 'stub', 'cluster_uuid': 'stub',
+                            'version': {'number': '8.11.0'}, 'tagline': 'You Know, for Search'})
+
+    def export(self, query):
+        after = query.get('after', [None])[0]
+        start = 0
+        if after:
+            start = next((i for i, d in enumerate(DOCTOR_IDS) if d > after), len(DOCTOR_IDS))
+        lines = ''.join(json.dumps(doctor(i, DOCTOR_IDS[i])) + '\n' for i in range(start, len(DOCTOR_IDS)))
+        self.send(200, lines.encode(), 'application/x-ndjson')
+
+    def bulk(self, path, payload):
+        time.sleep(BULK_DELAY)
+        lines = [line for line in payload.split(b'\n') if line]
+        items = []
+        for action in lines[0::2]:
+            meta = json.loads(action)['index']
+            items.append({'index': {'_index': meta.get('_index', path.split('/')[1]), '_id': meta['_id'],
+                                    'status': 201, 'result': 'created', '_version': 1,
+                                    '_shards': {'total': 1, 'successful': 1, 'failed': 0},
+                                    '_seq_no': 0, '_primary_term': 1}})
+        with lock:
+            state['docs'] += len(items)
+        self.send(200, {'took': int(BULK_DELAY * 1000), 'errors': False, 'items': items})
+
+    def aliases(self, request):
+        with lock:
+            for action in request.get('actions', []):
+                if 'add' in action:
+                    state['alias'].add(action['add']['index'])
+                if 'remove' in action:
+                    state['alias'].discard(action['remove']['index'])
+
+    do_GET = do_POST = do_PUT = do_HEAD = do_DELETE = handle_any
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+for port in (int(os.environ.get('ES_PORT', '9299')), int(os.environ.get('DOCTOR_PORT', '8092'))):
+    server = ThreadingHTTPServer(('0.0.0.0', port), Handler)
+    threading.Thread(target=server.serve_forever, daemon=True).start()
+threading.Event().wait()
+EOF
+
+# Start the stubs
+DOCTOR_COUNT="$DOCTOR_COUNT" BULK_DELAY_MS="$BULK_DELAY_MS" ES_PORT="$ES_PORT" DOCTOR_PORT="$DOCTOR_PORT" \
+    python3 /tmp/reindex-stubs.py &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null' EXIT
+sleep 2
+
+# Trigger the reindex and poll until it finishes
+curl -s -X POST "$BASE_URL/api/v1/search/admin/reindex"
+echo ""
+
+while true; do
+    sleep 2
+    STATUS=$(curl -s "$BASE_URL/api/v1/search/admin/reindex")
+    echo "$STATUS"
+    case "$STATUS" in
+        *'"state":"COMPLETED"'*|*'"state":"FAILED"'*) break ;;
+    esac
+done
@@ -0,0 +1,129 @@
+#!/bin/bash
+# Slot Reservation Contention Test
+# Hammers a single slot with concurrent reservations and reports
+# latency percentiles and how many reservations succeeded.
+# Uses k6 for load testing (https://k6.io)
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8084}"
+VIRTUAL_USERS="${VUS:-300}"
+DOCTOR_ID="${DOCTOR_ID:?DOCTOR_ID is required}"
+SLOT_ID="${SLOT_ID:?SLOT_ID of an AVAILABLE slot is required}"
+CONSULTATION_TYPE="${CONSULTATION_TYPE:-VIDEO}"
+
+echo "Slot Reservation Contention Test"
+echo "================================"
+echo "Target: $BASE_URL"
+echo "Virtual Users: $VIRTUAL_USERS"
+echo "Slot: $SLOT_ID"
+echo ""
+
+# Create k6 test script
+cat > /tmp/slot-contention-test.js << 'EOF'
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+// Custom metrics
+const reservationsWon = new Counter('reservations_won');
+const reservationsRejected = new Counter('reservations_rejected');
+const unexpectedResponses = new Counter('unexpected_responses');
+const reserveLatency = new Trend('reserve_latency', true);
+
+const VUS = parseInt(__ENV.VUS || '300');
+
+// Every virtual user fires exactly one reservation at the same slot
+export const options = {
+  scenarios: {
+    contention: {
+      executor: 'per-vu-iterations',
+      vus: VUS,
+      iterations: 1,
+      maxDuration: '1m',
+    },
+  },
+  thresholds: {
+    reservations_won: ['count<=1'],      // Never more than one winner
+    unexpected_responses: ['count==0'],  // Losers must get a clean 409
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+
+function uuidv4() {
+  return 'xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx'.replace(/[xy]/g, (c) => {
+    const r = (Math.random() * 16) | 0;
+    return (c === 'x' ? r : (r & 0x3) | 0x8).toString(16);
+  });
+}
+
+export default function () {
+  const payload = JSON.stringify({
+    doctorId: __ENV.DOCTOR_ID,
+    slotId: __ENV.SLOT_ID,
+    consultationType: __ENV.CONSULTATION_TYPE || 'VIDEO',
+    bookingNotes: 'Contention test',
+  });
+
+  const params = {
+    headers: {
+      'Content-Type': 'application/json',
+      'X-User-Id': uuidv4(),
+    },
+  };
+
+  const response = http.post(`${BASE_URL}/api/v1/appointments/reserve`, payload, params);
+  reserveLatency.add(response.timings.duration);
+
+  if (response.status === 201) {
+    reservationsWon.add(1);
+  } else if (response.status === 409) {
+    reservationsRejected.add(1);
+  } else {
+    unexpectedResponses.add(1);
+  }
+
+  check(response, {
+    'reservation accepted or rejected cleanly': (r) => r.status === 201 || r.status === 409,
+  });
+}
+
+export function handleSummary(data) {
+  const won = data.metrics.reservations_won?.values.count || 0;
+  const rejected = data.metrics.reservations_rejected?.values.count || 0;
+  const unexpected = data.metrics.unexpected_responses?.values.count || 0;
+  const latency = data.metrics.reserve_latency.values;
+
+  let summary = '\n=== Slot Contention Summary ===\n\n';
+  summary += `Reservations won: ${won}\n`;
+  summary += `Reservations rejected (409): ${rejected}\n`;
+  summary += `Unexpected responses: ${unexpected}\n`;
+  summary += `Double bookings: ${Math.max(0, won - 1)}\n`;
+  summary += `\nLatency:\n`;
+  summary += `  p50: ${latency['p(50)'].toFixed(2)}ms\n`;
+  summary += `  p95: ${latency['p(95)'].toFixed(2)}ms\n`;
+  summary += `  p99: ${(latency['p(99)'] || latency.max).toFixed(2)}ms\n`;
+
+  return {
+    'stdout': summary,
+    '/tmp/slot-contention-results.json': JSON.stringify(data, null, 2),
+  };
+}
+EOF
+
+# Run k6 test
+if command -v k6 &> /dev/null; then
+    k6 run \
+        --summary-trend-stats "avg,min,med,max,p(50),p(95),p(99)" \
+        --env BASE_URL="$BASE_URL" \
+        --env VUS="$VIRTUAL_USERS" \
+        --env DOCTOR_ID="$DOCTOR_ID" \
+        --env SLOT_ID="$SLOT_ID" \
+        --env CONSULTATION_TYPE="$CONSULTATION_TYPE" \
+        /tmp/slot-contention-test.js
+else
+    echo "k6 is not installed. Install from https://k6.io/docs/getting-started/installation/"
+    echo ""
+    echo "The test script has been created at /tmp/slot-contention-test.js"
+    echo "You can run it manually with: k6 run /tmp/slot-contention-test.js"
+fi
@@ -0,0 +1,85 @@
+#!/bin/bash
+# Vote Throughput Test
+# Every VU votes on the same review as a distinct user, which is the hot-row
+# case write-behind vote counters are meant for. Reports votes/sec and
+# latency; counts in doctor_reviews catch up within one flush interval
+# (review.votes.flush-interval-ms) after the run.
+# Uses k6 for load testing (https://k6.io)
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8091}"
+REVIEW_ID="${REVIEW_ID:?Set REVIEW_ID to an approved review}"
+VUS="${VUS:-200}"
+DURATION="${DURATION:-1m}"
+
+echo "Vote Throughput Test"
+echo "===================="
+echo "Target: $BASE_URL, review: $REVIEW_ID"
+echo "VUs: $VUS, duration: $DURATION"
+echo ""
+
+# Create k6 test script
+cat > /tmp/vote-throughput-test.js << 'EOF'
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+import { uuidv4 } from 'https://jslib.k6.io/k6-utils/1.4.0/index.js';
+
+// Custom metrics
+const votes = new Counter('votes');
+const voteLatency = new Trend('vote_latency', true);
+
+export const options = {
+  vus: parseInt(__ENV.VUS || '200'),
+  duration: __ENV.DURATION || '1m',
+  thresholds: {
+    'http_req_failed': ['rate<0.01'],
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8091';
+const REVIEW_ID = __ENV.REVIEW_ID;
+const TYPES = ['HELPFUL', 'NOT_HELPFUL'];
+
+export default function () {
+  // A fresh user per iteration so every request inserts a vote
+  const response = http.post(
+    `${BASE_URL}/api/v1/reviews/${REVIEW_ID}/vote`,
+    JSON.stringify({ voteType: TYPES[Math.random() < 0.8 ? 0 : 1] }),
+    { headers: { 'Content-Type': 'application/json', 'X-User-Id': uuidv4() } });
+  if (check(response, { 'vote accepted': (r) => r.status === 200 })) {
+    votes.add(1);
+  }
+  voteLatency.add(response.timings.duration);
+}
+
+export function handleSummary(data) {
+  const v = data.metrics['vote_latency'].values;
+  const count = data.metrics['votes'] ? data.metrics['votes'].values.count : 0;
+  const seconds = data.state.testRunDurationMs / 1000;
+  let summary = '\n=== Vote Throughput Summary ===\n\n';
+  summary += `  votes: ${count} (${(count / seconds).toFixed(0)} votes/sec)\n`;
+  summary += `  p50 ${v['p(50)'].toFixed(2)}ms, p95 ${v['p(95)'].toFixed(2)}ms, p99 ${v['p(99)'].toFixed(2)}ms\n`;
+
+  return {
+    'stdout': summary,
+    '/tmp/vote-throughput-results.json': JSON.stringify(data, null, 2),
+  };
+}
+EOF
+
+# Run k6 test
+if command -v k6 &> /dev/null; then
+    k6 run \
+        --summary-trend-stats "avg,min,med,max,p(50),p(95),p(99)" \
+        --env BASE_URL="$BASE_URL" \
+        --env REVIEW_ID="$REVIEW_ID" \
+        --env VUS="$VUS" \
+        --env DURATION="$DURATION" \
+        /tmp/vote-throughput-test.js
+else
+    echo "k6 is not installed. Install from https://k6.io/docs/getting-started/installation/"
+    echo ""
+    echo "The test script has been created at /tmp/vote-throughput-test.js"
+    echo "You can run it manually with: k6 run --env REVIEW_ID=$REVIEW_ID /tmp/vote-throughput-test.js"
+fi